@@ -4,6 +4,7 @@ plugins {
     kotlin("jvm") version "2.2.0-RC2"
     id("com.gradleup.shadow") version "8.3.6"
     id("xyz.jpenilla.run-paper") version "2.3.1"
+    id("me.champeau.jmh") version "0.7.3"
 }
 
 group = "org.crashvibe"
@@ -20,15 +21,30 @@ repositories {
     maven("https://jitpack.io") {
         name = "jitpack"
     }
+    maven("https://repo.extendedclip.com/releases/") {
+        name = "placeholderapi"
+    }
 }
 
 dependencies {
     compileOnly("io.papermc.paper:paper-api:1.21.4-R0.1-SNAPSHOT")
     compileOnly("org.jetbrains:annotations:26.0.2")
+    compileOnly("me.clip:placeholderapi:2.11.6")
     implementation("org.jetbrains.kotlin:kotlin-stdlib-jdk8")
     implementation("org.java-websocket:Java-WebSocket:1.6.0")
     implementation("com.github.technicallycoded:FoliaLib:0.4.4")
     implementation("org.bstats:bstats-bukkit:3.1.0")
+    jmh("org.openjdk.jmh:jmh-core:1.37")
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// 基准测试位于 src/jmh/java，运行 ./gradlew jmh
+jmh {
+    jmhVersion = "1.37"
+    fork = 1
+    warmupIterations = 3
+    iterations = 5
+    resultFormat = "JSON"
 }
 
 tasks {
@@ -0,0 +1,78 @@
+package com.crashvibe.fgateclient.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消息格式化基准 - 比较预编译模板与原先逐个参数调用 String.replace 的实现
+ * 消息取自语言文件，分别覆盖单个占位符、多个占位符与同一占位符重复出现
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MessageTemplateBenchmark {
+
+    private static final Map<String, String> MESSAGES = Map.of(
+            "player_join_error", "player.join response error: {error}",
+            "player_kicked", "Player {player} was kicked on join: {reason}",
+            "got_auth_code", "You request a new bind request,the code is {auth_code},"
+                    + "please use /bind {auth_code} in chat group to bind account.");
+
+    @Param({"player_join_error", "player_kicked", "got_auth_code"})
+    public String key;
+
+    private String text;
+    private MessageTemplate template;
+    private Map<String, String> params;
+    private String[] nameValues;
+
+    @Setup
+    public void setup() {
+        text = MESSAGES.get(key);
+        template = MessageTemplate.compile(text);
+
+        params = new LinkedHashMap<>();
+        params.put("error", "timeout");
+        params.put("player", "Steve");
+        params.put("reason", "You are not whitelisted");
+        params.put("auth_code", "482913");
+        nameValues = new String[params.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            nameValues[i++] = entry.getKey();
+            nameValues[i++] = entry.getValue();
+        }
+    }
+
+    @Benchmark
+    public String compiledMap() {
+        return template.format(params);
+    }
+
+    @Benchmark
+    public String compiledVarargs() {
+        return template.format(nameValues);
+    }
+
+    /**
+     * 原实现：每个参数拼接一次占位符并整体替换一次
+     */
+    @Benchmark
+    public String replaceChain() {
+        String msg = text;
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            msg = msg.replace("{" + entry.getKey() + "}", entry.getValue());
+        }
+        return msg;
+    }
+}
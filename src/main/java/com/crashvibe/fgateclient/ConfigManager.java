@@ -1,144 +1,179 @@
 package com.crashvibe.fgateclient;
 
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 配置管理器 - 统一管理所有配置项
+ * 配置以不可变的 {@link ConfigSnapshot} 保存，重新加载时整体替换，任意线程读取都能看到完整的一份配置
  */
 public class ConfigManager {
 
     private final JavaPlugin plugin;
-    private FileConfiguration config;
-
-    // WebSocket 配置
-    private String websocketUrl;
-    private String websocketToken;
-
-    // RCON 配置
-    private boolean useBuiltinRcon;
-    private String rconHost;
-    private int rconPort;
-    private String rconPassword;
-
-    // 新增语言配置项
-    @SuppressWarnings("unused")
-    private String language;
-    private String fallbackLanguage;
-
-    // Join 事件配置项
-    private boolean allowJoinWithoutWebSocket;
+    private final AtomicReference<ConfigSnapshot> snapshot = new AtomicReference<>();
+    private volatile FileConfiguration config;
 
     public ConfigManager(JavaPlugin plugin) {
         this.plugin = plugin;
         loadConfig();
     }
 
-    public void loadConfig() {
-        plugin.saveDefaultConfig();
-        plugin.reloadConfig();
-        config = plugin.getConfig();
+    /**
+     * 加载配置，不做验证（启动时由 startServices 验证）
+     */
+    public synchronized void loadConfig() {
+        snapshot.set(read());
+    }
 
-        // 加载 WebSocket 配置
-        websocketUrl = config.getString("websocket.url");
-        websocketToken = config.getString("websocket.token");
+    /**
+     * 异步加载配置
+     *
+     * @param executor 读取配置文件的执行器
+     */
+    public CompletableFuture<Void> loadConfigAsync(Executor executor) {
+        return CompletableFuture.runAsync(this::loadConfig, executor);
+    }
 
-        // 加载 RCON 配置
-        useBuiltinRcon = config.getBoolean("rcon.use-builtin", true);
-        rconHost = config.getString("rcon.host", "localhost");
-        rconPort = config.getInt("rcon.port", 25575);
-        rconPassword = config.getString("rcon.password", "");
-        allowJoinWithoutWebSocket = config.getBoolean("allowJoinWithoutWebSocket", false);
+    /**
+     * 重新加载并验证配置，验证失败时保留当前配置
+     * 先解析到独立的配置对象，验证通过后才替换快照与插件的配置
+     *
+     * @return 替换前的配置
+     * @throws IllegalArgumentException 新配置无法解析或无效
+     */
+    public synchronized ConfigSnapshot reload() throws IllegalArgumentException {
+        FileConfiguration candidate = parse();
+        ConfigSnapshot next = ConfigSnapshot.from(candidate);
+        next.validate();
 
-        fallbackLanguage = config.getString("fallback-language", "zh_CN");
+        plugin.reloadConfig();
+        config = candidate;
+        return snapshot.getAndSet(next);
     }
 
     /**
-     * 异步加载配置
+     * 读取配置文件到新的配置对象，不影响插件当前的配置
      */
-    public CompletableFuture<Void> loadConfigAsync() {
-        return CompletableFuture.runAsync(() -> {
-            plugin.saveDefaultConfig();
-            plugin.reloadConfig();
-            config = plugin.getConfig();
-
-            // 加载 WebSocket 配置
-            websocketUrl = config.getString("websocket.url");
-            websocketToken = config.getString("websocket.token");
+    private FileConfiguration parse() {
+        plugin.saveDefaultConfig();
+        YamlConfiguration candidate = new YamlConfiguration();
+        InputStream defaults = plugin.getResource("config.yml");
+        if (defaults != null) {
+            try (Reader reader = new InputStreamReader(defaults, StandardCharsets.UTF_8)) {
+                candidate.setDefaults(YamlConfiguration.loadConfiguration(reader));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Failed to read default config: " + e.getMessage(), e);
+            }
+        }
 
-            // 加载 RCON 配置
-            useBuiltinRcon = config.getBoolean("rcon.use-builtin", true);
-            rconHost = config.getString("rcon.host", "localhost");
-            rconPort = config.getInt("rcon.port", 25575);
-            rconPassword = config.getString("rcon.password", "");
-            allowJoinWithoutWebSocket = config.getBoolean("allowJoinWithoutWebSocket", false);
+        try {
+            candidate.load(new File(plugin.getDataFolder(), "config.yml"));
+        } catch (IOException | InvalidConfigurationException e) {
+            throw new IllegalArgumentException("Failed to parse config.yml: " + e.getMessage(), e);
+        }
+        return candidate;
+    }
 
-            fallbackLanguage = config.getString("fallback-language", "zh_CN");
-        });
+    private ConfigSnapshot read() {
+        plugin.saveDefaultConfig();
+        plugin.reloadConfig();
+        config = plugin.getConfig();
+        return ConfigSnapshot.from(config);
     }
 
     /**
      * 异步验证配置
+     *
+     * @param executor 执行验证的执行器
      */
-    public CompletableFuture<Void> validateConfigAsync() {
-        return CompletableFuture.runAsync(() -> {
-            if (websocketUrl == null || websocketUrl.trim().isEmpty()) {
-                throw new IllegalArgumentException("WebSocket URL can't be null!");
-            }
-            if (websocketToken == null || websocketToken.trim().isEmpty()) {
-                throw new IllegalArgumentException("WebSocket Token can't be null!");
-            }
-            if (!useBuiltinRcon && (rconPassword == null || rconPassword.trim().isEmpty())) {
-                throw new IllegalArgumentException("Remote RCON token can't be null!");
-            }
-        });
+    public CompletableFuture<Void> validateConfigAsync(Executor executor) {
+        return CompletableFuture.runAsync(this::validateConfig, executor);
     }
 
     /**
      * 同步验证配置
      */
     public void validateConfig() throws IllegalArgumentException {
-        if (websocketUrl == null || websocketUrl.trim().isEmpty()) {
-            throw new IllegalArgumentException("WebSocket URL can't be null!");
-        }
-        if (websocketToken == null || websocketToken.trim().isEmpty()) {
-            throw new IllegalArgumentException("WebSocket Token can't be null!");
-        }
-        if (!useBuiltinRcon && (rconPassword == null || rconPassword.trim().isEmpty())) {
-            throw new IllegalArgumentException("Remote RCON token can't be null!");
-        }
+        snapshot.get().validate();
+    }
+
+    /**
+     * 当前配置
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot.get();
     }
 
     // WebSocket 配置的 getter 方法
     public String getWebsocketUrl() {
-        return websocketUrl;
+        return snapshot.get().webSocket().url();
     }
 
     public String getWebsocketToken() {
-        return websocketToken;
+        return snapshot.get().webSocket().token();
     }
 
     // RCON 配置的 getter 方法
     public boolean isUseBuiltinRcon() {
-        return useBuiltinRcon;
+        return snapshot.get().rcon().useBuiltin();
     }
 
     public String getRconHost() {
-        return rconHost;
+        return snapshot.get().rcon().host();
     }
 
     public int getRconPort() {
-        return rconPort;
+        return snapshot.get().rcon().port();
     }
 
     public String getRconPassword() {
-        return rconPassword;
+        return snapshot.get().rcon().password();
+    }
+
+    public boolean isRconCacheEnabled() {
+        return snapshot.get().rcon().cacheEnabled();
+    }
+
+    public Map<String, Long> getRconCacheTtls() {
+        return snapshot.get().rcon().cacheTtls();
+    }
+
+    public int getIdempotencyCapacity() {
+        return snapshot.get().dispatcher().idempotencyCapacity();
+    }
+
+    public long getIdempotencyWindowSeconds() {
+        return snapshot.get().dispatcher().idempotencyWindowSeconds();
+    }
+
+    public boolean isPresenceEnabled() {
+        return snapshot.get().sampling().presenceEnabled();
+    }
+
+    public long getPresenceIntervalTicks() {
+        return snapshot.get().sampling().presenceIntervalTicks();
+    }
+
+    public long getTelemetryIntervalTicks() {
+        return snapshot.get().sampling().telemetryIntervalTicks();
     }
 
     public boolean isRconConfigured() {
-        return rconPassword != null && !rconPassword.isEmpty();
+        String password = getRconPassword();
+        return password != null && !password.isEmpty();
     }
 
     public FileConfiguration getConfig() {
@@ -146,10 +181,22 @@ public class ConfigManager {
     }
 
     public String getFallbackLanguage() {
-        return fallbackLanguage;
+        return snapshot.get().language().fallback();
+    }
+
+    public boolean isLanguageReloadEnabled() {
+        return snapshot.get().language().reloadEnabled();
+    }
+
+    public long getLanguageReloadDebounceMillis() {
+        return snapshot.get().language().reloadDebounceMillis();
     }
 
     public boolean isAllowJoinWithoutWebSocket() {
-        return allowJoinWithoutWebSocket;
+        return snapshot.get().allowJoinWithoutWebSocket();
+    }
+
+    public boolean isDebug() {
+        return snapshot.get().debug();
     }
 }
@@ -0,0 +1,155 @@
+package com.crashvibe.fgateclient;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 配置快照 - 一次加载的全部配置项，加载后不可变，重新加载时整体替换
+ * 按服务分组，重新加载时比较对应分组即可判断哪些服务需要重建
+ */
+public record ConfigSnapshot(WebSocket webSocket,
+                             Rcon rcon,
+                             Dispatcher dispatcher,
+                             Sampling sampling,
+                             Language language,
+                             Placeholders placeholders,
+                             boolean allowJoinWithoutWebSocket,
+                             boolean debug) {
+
+    /**
+     * 变化时需要重新连接
+     */
+    public record WebSocket(String url, String token) {
+
+        @Override
+        public String toString() {
+            return "WebSocket[url=" + url + "]";
+        }
+    }
+
+    /**
+     * 变化时需要重建 RCON 连接与结果缓存
+     *
+     * @param cacheTtls 只读命令 -> 缓存毫秒数
+     */
+    public record Rcon(boolean useBuiltin, String host, int port, String password, boolean cacheEnabled,
+                       Map<String, Long> cacheTtls) {
+
+        public Rcon {
+            cacheTtls = Map.copyOf(cacheTtls);
+        }
+
+        @Override
+        public String toString() {
+            return "Rcon[useBuiltin=" + useBuiltin + ", host=" + host + ", port=" + port + "]";
+        }
+    }
+
+    public record Dispatcher(int idempotencyCapacity, long idempotencyWindowSeconds) {
+    }
+
+    public record Sampling(boolean presenceEnabled, long presenceIntervalTicks, long telemetryIntervalTicks) {
+    }
+
+    public record Language(String fallback, boolean reloadEnabled, long reloadDebounceMillis) {
+    }
+
+    /**
+     * PlaceholderAPI 变量的主机数据缓存
+     *
+     * @param ttlSeconds 变量名 -> 数据有效期（秒），default 为未单独配置的变量
+     */
+    public record Placeholders(long refreshIntervalTicks, int batchSize, Map<String, Long> ttlSeconds,
+                               long maxStaleSeconds) {
+
+        public Placeholders {
+            ttlSeconds = Map.copyOf(ttlSeconds);
+        }
+
+        public long ttlSeconds(String placeholder) {
+            Long ttl = ttlSeconds.get(placeholder);
+            return ttl != null ? ttl : ttlSeconds.getOrDefault("default", 60L);
+        }
+    }
+
+    public static ConfigSnapshot from(FileConfiguration config) {
+        WebSocket webSocket = new WebSocket(config.getString("websocket.url"), config.getString("websocket.token"));
+
+        Map<String, Long> ttls = new HashMap<>();
+        ConfigurationSection section = config.getConfigurationSection("rcon.cache.commands");
+        if (section != null) {
+            for (String command : section.getKeys(false)) {
+                long ttl = section.getLong(command, 0);
+                if (ttl > 0) {
+                    ttls.put(command.trim().toLowerCase(Locale.ROOT), ttl);
+                }
+            }
+        }
+        Rcon rcon = new Rcon(
+                config.getBoolean("rcon.use-builtin", true),
+                config.getString("rcon.host", "localhost"),
+                config.getInt("rcon.port", 25575),
+                config.getString("rcon.password", ""),
+                config.getBoolean("rcon.cache.enable", true),
+                ttls);
+
+        Dispatcher dispatcher = new Dispatcher(
+                config.getInt("dispatcher.idempotency.capacity", 2048),
+                config.getLong("dispatcher.idempotency.window-seconds", 120));
+
+        Sampling sampling = new Sampling(
+                config.getBoolean("presence.enable", true),
+                Math.max(1, config.getLong("presence.interval-ticks", 20)),
+                Math.max(1, config.getLong("telemetry.interval-ticks", 20)));
+
+        Language language = new Language(
+                config.getString("fallback-language", "zh_CN"),
+                config.getBoolean("language-reload.enable", true),
+                Math.max(50, config.getLong("language-reload.debounce-ms", 500)));
+
+        Map<String, Long> placeholderTtls = new HashMap<>();
+        ConfigurationSection ttlSection = config.getConfigurationSection("placeholders.ttl-seconds");
+        if (ttlSection != null) {
+            for (String placeholder : ttlSection.getKeys(false)) {
+                placeholderTtls.put(placeholder.toLowerCase(Locale.ROOT), Math.max(1, ttlSection.getLong(placeholder)));
+            }
+        }
+        Placeholders placeholders = new Placeholders(
+                Math.max(1, config.getLong("placeholders.refresh-interval-ticks", 10)),
+                Math.max(1, config.getInt("placeholders.batch-size", 100)),
+                placeholderTtls,
+                Math.max(1, config.getLong("placeholders.max-stale-seconds", 1800)));
+
+        return new ConfigSnapshot(webSocket, rcon, dispatcher, sampling, language, placeholders,
+                config.getBoolean("allowJoinWithoutWebSocket", false),
+                config.getBoolean("debug.enable", false));
+    }
+
+    /**
+     * 验证配置
+     *
+     * @throws IllegalArgumentException 配置无效
+     */
+    public void validate() throws IllegalArgumentException {
+        if (webSocket.url() == null || webSocket.url().trim().isEmpty()) {
+            throw new IllegalArgumentException("WebSocket URL can't be null!");
+        }
+        try {
+            new URI(webSocket.url());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid WebSocket URL: " + e.getMessage());
+        }
+        if (webSocket.token() == null || webSocket.token().trim().isEmpty()) {
+            throw new IllegalArgumentException("WebSocket Token can't be null!");
+        }
+        if (!rcon.useBuiltin() && (rcon.password() == null || rcon.password().trim().isEmpty())) {
+            throw new IllegalArgumentException("Remote RCON token can't be null!");
+        }
+    }
+}
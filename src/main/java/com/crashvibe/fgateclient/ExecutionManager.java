@@ -0,0 +1,136 @@
+package com.crashvibe.fgateclient;
+
+import com.crashvibe.fgateclient.utils.InstrumentedExecutor;
+import com.crashvibe.fgateclient.utils.InstrumentedScheduler;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * 执行器管理 - 插件内所有异步任务的执行位置，由 ServiceManager 创建并注入各组件
+ * io 为虚拟线程，用于会阻塞的网络与文件操作；cpu 为有界线程池，用于消息解析、分发等短小计算；
+ * scheduler 为单线程定时器，到期后只把任务交给 io 或 cpu，自身不执行耗时操作
+ * 需要访问游戏对象或以 tick 为单位的任务仍由 FoliaLib 调度
+ */
+public class ExecutionManager {
+
+    // cpu 线程池排队上限，超出后在提交线程执行，对消息接收形成背压
+    private static final int CPU_QUEUE_CAPACITY = 1024;
+
+    private final Logger logger;
+    private final InstrumentedExecutor io;
+    private final InstrumentedExecutor cpu;
+    private final InstrumentedScheduler scheduler;
+
+    public ExecutionManager(Logger logger) {
+        this.logger = logger;
+        this.io = new InstrumentedExecutor("io", Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("FGateClient-IO-", 0).factory()), false);
+
+        int cpuThreads = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        ThreadPoolExecutor cpuPool = new ThreadPoolExecutor(cpuThreads, cpuThreads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(CPU_QUEUE_CAPACITY), daemonFactory("FGateClient-CPU-"));
+        cpuPool.allowCoreThreadTimeOut(true);
+        this.cpu = new InstrumentedExecutor("cpu", cpuPool, true);
+
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, daemonFactory("FGateClient-Scheduler-"));
+        timer.setRemoveOnCancelPolicy(true);
+        timer.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        this.scheduler = new InstrumentedScheduler("scheduler", timer);
+    }
+
+    private static ThreadFactory daemonFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 阻塞操作：网络、文件、外部 RCON
+     */
+    public InstrumentedExecutor io() {
+        return io;
+    }
+
+    /**
+     * 不阻塞的短小计算：消息解析、请求分发、结果序列化
+     */
+    public InstrumentedExecutor cpu() {
+        return cpu;
+    }
+
+    public InstrumentedScheduler scheduler() {
+        return scheduler;
+    }
+
+    /**
+     * 延迟后在 target 上执行
+     */
+    public ScheduledFuture<?> schedule(Executor target, Runnable task, long delay, TimeUnit unit) {
+        return scheduler.schedule(() -> target.execute(task), delay, unit);
+    }
+
+    /**
+     * 按固定频率在 target 上执行
+     */
+    public ScheduledFuture<?> scheduleAtFixedRate(Executor target, Runnable task, long initialDelay, long period,
+                                                  TimeUnit unit) {
+        return scheduler.scheduleAtFixedRate(() -> target.execute(task), initialDelay, period, unit);
+    }
+
+    public List<InstrumentedExecutor.Snapshot> snapshots() {
+        return List.of(io.snapshot(), cpu.snapshot(), scheduler.snapshot());
+    }
+
+    /**
+     * 停止全部执行器：未到期的定时任务直接丢弃，已提交的任务在期限内执行完，超时后中断
+     */
+    public void shutdown(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        scheduler.shutdownNow();
+        cpu.shutdown();
+        io.shutdown();
+
+        try {
+            for (InstrumentedExecutor executor : List.of(cpu, io, scheduler)) {
+                long remaining = deadline - System.nanoTime();
+                if (!executor.awaitTermination(Math.max(0, remaining), TimeUnit.NANOSECONDS)) {
+                    int dropped = executor.shutdownNow();
+                    logger.warning("Executor " + executor.getName() + " did not stop within " + timeoutMillis
+                            + " ms, interrupted " + executor.getActiveCount() + " tasks and dropped " + dropped);
+                }
+            }
+        } catch (InterruptedException e) {
+            cpu.shutdownNow();
+            io.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 在独立线程中停止全部执行器，调用方可以是这些执行器中的任务
+     */
+    public CompletableFuture<Void> shutdownAsync(long timeoutMillis) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            shutdown(timeoutMillis);
+            future.complete(null);
+        }, "FGateClient-Shutdown");
+        thread.setDaemon(true);
+        thread.start();
+        return future;
+    }
+}
@@ -1,16 +1,24 @@
 package com.crashvibe.fgateclient;
 
+import com.crashvibe.fgateclient.api.FGateApi;
 import com.crashvibe.fgateclient.commands.PaperCommand;
 import com.crashvibe.fgateclient.listeners.OnChatMessage;
 import com.crashvibe.fgateclient.listeners.OnJoin;
+import com.crashvibe.fgateclient.listeners.OnLocaleChange;
+import com.crashvibe.fgateclient.listeners.OnQuit;
+import com.crashvibe.fgateclient.papi.FGateExpansion;
 import com.crashvibe.fgateclient.utils.EventUtil;
 import com.crashvibe.fgateclient.utils.I18n;
 import com.tcoded.folialib.FoliaLib;
 import io.papermc.paper.plugin.lifecycle.event.types.LifecycleEvents;
 import org.bstats.bukkit.Metrics;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,6 +29,7 @@ public class FGateClient extends JavaPlugin {
     public final FoliaLib foliaLib = new FoliaLib(this);
     public final Logger logger = getLogger();
     private ServiceManager serviceManager;
+    private FGateExpansion placeholderExpansion;
 
     public static FGateClient getInstance() {
         return instance;
@@ -39,7 +48,10 @@ public class FGateClient extends JavaPlugin {
 
         logger.info("Configuration loaded, initializing services...");
         serviceManager = new ServiceManager(logger, foliaLib, new ConfigManager(this),
-                getPluginMeta().getVersion(), new I18n(getDataFolder()));
+                getPluginMeta().getVersion(), new I18n(getDataFolder(), logger));
+
+        // 发布 API，其他插件可复用同一主机连接
+        getServer().getServicesManager().register(FGateApi.class, serviceManager.getApi(), this, ServicePriority.Normal);
 
         new Metrics(this, 26085);
         logger.info("bStats Hook Enabled!");
@@ -68,7 +80,7 @@ public class FGateClient extends JavaPlugin {
                 // 在主线程禁用插件
                 getServer().getScheduler().runTask(this, () -> getServer().getPluginManager().disablePlugin(this));
             }
-        }).exceptionally(throwable -> {
+        }, serviceManager.getExecutionManager().io()).exceptionally(throwable -> {
             logger.log(Level.SEVERE, "Failed to initialize plugin asynchronously", throwable);
             return null;
         });
@@ -79,14 +91,24 @@ public class FGateClient extends JavaPlugin {
 
     @Override
     public void onDisable() {
+        getServer().getServicesManager().unregisterAll(this);
+        if (placeholderExpansion != null) {
+            placeholderExpansion.unregister();
+            placeholderExpansion = null;
+        }
         if (serviceManager != null) {
-            // 异步停止服务以避免阻塞服务器关闭
-            serviceManager.stopServicesAsync()
-                    .thenRun(() -> logger.info("FGateClient plugin disabled successfully!"))
-                    .exceptionally(throwable -> {
-                        logger.warning("Error during async shutdown: " + throwable.getMessage());
-                        return null;
-                    });
+            // 等待关闭流程完成，否则插件卸载后发送队列与连接可能来不及处理；关闭流程自身有时限
+            try {
+                serviceManager.stopServicesAsync()
+                        .get(ServiceManager.SHUTDOWN_TIMEOUT_MILLIS + 500, TimeUnit.MILLISECONDS);
+                logger.info("FGateClient plugin disabled successfully!");
+            } catch (TimeoutException e) {
+                logger.warning("Shutdown did not finish within " + ServiceManager.SHUTDOWN_TIMEOUT_MILLIS + " ms");
+            } catch (ExecutionException e) {
+                logger.log(Level.WARNING, "Error during shutdown", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
         } else {
             logger.info("FGateClient plugin disabled!");
         }
@@ -95,7 +117,26 @@ public class FGateClient extends JavaPlugin {
     private void initListeners() {
         EventUtil.registerEvents(this,
                 new OnJoin(this),
-                new OnChatMessage(this));
+                new OnQuit(this),
+                new OnLocaleChange(this),
+                new OnChatMessage(this),
+                serviceManager.getApi(),
+                serviceManager.getTelemetrySampler());
+        // 监听器注册后再收录已在线的玩家（插件在服务器运行中加载时），之后由加入与退出事件维护
+        serviceManager.getPlayerManager().getPlayerIndex().seed(getServer().getOnlinePlayers());
+        getServer().getOnlinePlayers().forEach(serviceManager.getI18n()::updatePlayerLocale);
+        registerPlaceholders();
+    }
+
+    private void registerPlaceholders() {
+        if (!getServer().getPluginManager().isPluginEnabled("PlaceholderAPI")) {
+            return;
+        }
+        placeholderExpansion = new FGateExpansion(getPluginMeta().getVersion(), serviceManager.getBindStatusCache(),
+                serviceManager.getHostDataCache());
+        if (placeholderExpansion.register()) {
+            logger.info("PlaceholderAPI Hook Enabled!");
+        }
     }
 
     public ServiceManager getServiceManager() {
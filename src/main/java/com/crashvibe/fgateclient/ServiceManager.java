@@ -1,21 +1,37 @@
 package com.crashvibe.fgateclient;
 
+import com.crashvibe.fgateclient.api.FGateApiProvider;
+import com.crashvibe.fgateclient.api.host.PlayerService;
+import com.crashvibe.fgateclient.handler.IdempotencyCache;
 import com.crashvibe.fgateclient.handler.RequestDispatcher;
+import com.crashvibe.fgateclient.handler.impl.BindChangedHandler;
 import com.crashvibe.fgateclient.handler.impl.ExecuteRconHandler;
 import com.crashvibe.fgateclient.handler.impl.GetClientInfoHandler;
 import com.crashvibe.fgateclient.handler.impl.KickPlayerHandler;
+import com.crashvibe.fgateclient.handler.impl.KickPlayersHandler;
+import com.crashvibe.fgateclient.handler.impl.MetricsSubscribeHandler;
+import com.crashvibe.fgateclient.handler.impl.MetricsUnsubscribeHandler;
+import com.crashvibe.fgateclient.handler.impl.PapiResolveHandler;
+import com.crashvibe.fgateclient.handler.impl.PresenceSnapshotHandler;
+import com.crashvibe.fgateclient.service.BindStatusCache;
+import com.crashvibe.fgateclient.service.HostDataCache;
+import com.crashvibe.fgateclient.service.MetricsStreamer;
+import com.crashvibe.fgateclient.service.OnlinePlayerIndex;
 import com.crashvibe.fgateclient.service.PlayerManager;
+import com.crashvibe.fgateclient.service.PresenceTracker;
 import com.crashvibe.fgateclient.service.RconManager;
+import com.crashvibe.fgateclient.service.TelemetrySampler;
 import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.crashvibe.fgateclient.utils.LanguageWatcher;
+import com.google.gson.JsonObject;
 import com.tcoded.folialib.FoliaLib;
+import org.bukkit.Bukkit;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.StringJoiner;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
 
 /**
@@ -24,18 +40,33 @@ import java.util.logging.Logger;
 @SuppressWarnings("unused")
 public class ServiceManager {
 
+    // 关闭流程的总时限，各阶段时限之和不超过该值，剩余时间留给执行器停止
+    public static final long SHUTDOWN_TIMEOUT_MILLIS = 3000;
+    private static final long DRAIN_TIMEOUT_MILLIS = 1000;
+    private static final long FLUSH_TIMEOUT_MILLIS = 500;
+    private static final long CLOSE_TIMEOUT_MILLIS = 500;
+    // 执行器至少有这么长时间执行完已提交的任务
+    private static final long MIN_EXECUTOR_SHUTDOWN_MILLIS = 200;
+
     private static ServiceManager instance;
     private final Logger logger;
     private final FoliaLib foliaLib;
     private final ConfigManager configManager;
     private final String clientVersion;
     private final com.crashvibe.fgateclient.utils.I18n i18n;
-    private final AtomicReference<ExecutorService> executorService = new AtomicReference<>();
+    private final ExecutionManager executionManager;
     // 服务实例
     private RconManager rconManager;
     private PlayerManager playerManager;
     private WebSocketManager webSocketManager;
     private RequestDispatcher requestDispatcher;
+    private FGateApiProvider api;
+    private PresenceTracker presenceTracker;
+    private BindStatusCache bindStatusCache;
+    private HostDataCache hostDataCache;
+    private TelemetrySampler telemetrySampler;
+    private MetricsStreamer metricsStreamer;
+    private LanguageWatcher languageWatcher;
 
     public ServiceManager(Logger logger, FoliaLib foliaLib, ConfigManager configManager, String clientVersion,
                           com.crashvibe.fgateclient.utils.I18n i18n) {
@@ -44,18 +75,12 @@ public class ServiceManager {
         this.configManager = configManager;
         this.clientVersion = clientVersion;
         this.i18n = i18n;
+        this.executionManager = new ExecutionManager(logger);
         instance = this;
 
-        // 创建专用线程池用于插件任务
-        executorService.set(Executors.newFixedThreadPool(3, r -> {
-            Thread t = new Thread(r, "FGateClient-Worker-" + r.hashCode());
-            t.setDaemon(true);
-            return t;
-        }));
-
-        // 异步初始化I18n的配置管理器引用和预加载
-        i18n.initializeAsync(configManager)
-                .thenCompose(v -> i18n.preloadLanguageFilesAsync())
+        // 异步加载语言文件，加载完成前消息使用键本身
+        i18n.initializeAsync(configManager, executionManager.io())
+                .thenRun(this::startLanguageWatcher)
                 .exceptionally(throwable -> {
                     logger.warning("Failed to initialize I18n asynchronously: " + throwable.getMessage());
                     return null;
@@ -70,11 +95,14 @@ public class ServiceManager {
 
     private void initializeServices() {
         // 初始化基础服务
-        rconManager = new RconManager(logger, foliaLib, configManager);
-        playerManager = new PlayerManager(logger, foliaLib);
+        rconManager = new RconManager(logger, foliaLib, configManager, executionManager.io());
+        playerManager = new PlayerManager(logger, foliaLib, new OnlinePlayerIndex());
 
         // 初始化请求分发器
-        requestDispatcher = new RequestDispatcher(logger, foliaLib);
+        requestDispatcher = new RequestDispatcher(logger, foliaLib, playerManager,
+                new IdempotencyCache(configManager.getIdempotencyCapacity(),
+                        configManager.getIdempotencyWindowSeconds()),
+                executionManager.cpu(), executionManager.io());
 
         // 初始化 WebSocket 服务
         try {
@@ -82,7 +110,7 @@ public class ServiceManager {
                     new URI(configManager.getWebsocketUrl()),
                     configManager.getWebsocketToken(),
                     logger,
-                    foliaLib,
+                    executionManager,
                     configManager,
                     requestDispatcher,
                     clientVersion);
@@ -90,6 +118,19 @@ public class ServiceManager {
             throw new RuntimeException(e);
         }
 
+        telemetrySampler = new TelemetrySampler(logger, foliaLib, playerManager.getPlayerIndex(),
+                configManager.getTelemetryIntervalTicks());
+        metricsStreamer = new MetricsStreamer(logger, executionManager, telemetrySampler, webSocketManager);
+        presenceTracker = new PresenceTracker(logger, foliaLib, playerManager.getPlayerIndex(), webSocketManager,
+                configManager.getPresenceIntervalTicks());
+
+        api = new FGateApiProvider(requestDispatcher, webSocketManager, logger);
+        PlayerService playerService = api.createClient(PlayerService.class);
+        bindStatusCache = new BindStatusCache(logger, playerService, webSocketManager,
+                BindStatusCache.DEFAULT_CAPACITY);
+        hostDataCache = new HostDataCache(logger, foliaLib, configManager, playerManager.getPlayerIndex(),
+                webSocketManager, playerService);
+
         // 注册请求处理器
         registerHandlers();
         logger.info("Init done, " + requestDispatcher.getHandlerCount() + " handlers has been enabled");
@@ -97,11 +138,22 @@ public class ServiceManager {
 
     private void registerHandlers() {
         requestDispatcher
-                .registerHandler(new GetClientInfoHandler(webSocketManager, rconManager, logger))
+                .registerHandler(new GetClientInfoHandler(webSocketManager, rconManager, telemetrySampler, logger))
                 .registerHandler(new ExecuteRconHandler(webSocketManager, rconManager))
-                .registerHandler(new KickPlayerHandler(webSocketManager, playerManager))
+                .registerHandler(new KickPlayerHandler(webSocketManager, playerManager, logger))
+                .registerHandler(new KickPlayersHandler(webSocketManager, playerManager, logger))
+                .registerHandler(new PresenceSnapshotHandler(webSocketManager, presenceTracker))
+                .registerHandler(new BindChangedHandler(webSocketManager, bindStatusCache, hostDataCache))
+                .registerHandler(new MetricsSubscribeHandler(webSocketManager, metricsStreamer))
+                .registerHandler(new MetricsUnsubscribeHandler(webSocketManager, metricsStreamer))
                 .registerHandler(new com.crashvibe.fgateclient.handler.impl.BroadcastMessageHandler(webSocketManager,
-                        logger, foliaLib));
+                        logger));
+
+        // PlaceholderAPI 在本插件之前加载（paper-plugin.yml 中声明），未安装或未启用时不注册，主机端收到方法不存在；
+        // 判断条件与 get.client.info 的 supports_papi 一致
+        if (Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI")) {
+            requestDispatcher.registerHandler(new PapiResolveHandler(webSocketManager, playerManager, foliaLib, logger));
+        }
     }
 
     /**
@@ -110,14 +162,13 @@ public class ServiceManager {
     public CompletableFuture<Void> startServicesAsync() {
         return CompletableFuture.runAsync(() -> {
                     logger.info("Starting services......");
-                })
-                .thenCompose(v -> {
-                    // 异步验证配置
-                    return configManager.validateConfigAsync();
-                })
+                    // 验证配置
+                    configManager.validateConfig();
+                }, executionManager.io())
                 .thenRun(() -> {
                     // 连接 WebSocket
                     webSocketManager.connect();
+                    startSamplers();
                     logger.info("Done!");
                 });
     }
@@ -134,59 +185,221 @@ public class ServiceManager {
 
         // 连接 WebSocket
         webSocketManager.connect();
+        startSamplers();
 
         logger.info("Done!");
     }
 
     /**
-     * 异步停止所有服务
+     * 重新加载配置，只重建配置发生变化的服务，其余配置项直接生效
+     * 新配置无效时保留当前配置，返回的 future 以 IllegalArgumentException 失败
      */
-    public CompletableFuture<Void> stopServicesAsync() {
-        return CompletableFuture.runAsync(() -> {
-            logger.info("Stopping services......");
+    public CompletableFuture<ConfigSnapshot> reloadConfigAsync() {
+        return CompletableFuture.supplyAsync(() -> {
+            ConfigSnapshot previous = configManager.reload();
+            ConfigSnapshot current = configManager.getSnapshot();
+            applyConfigChanges(previous, current);
+            return current;
+        }, executionManager.io());
+    }
 
-            if (webSocketManager != null) {
-                webSocketManager.close(1001);
+    private void applyConfigChanges(ConfigSnapshot previous, ConfigSnapshot current) {
+        if (!previous.webSocket().equals(current.webSocket())) {
+            try {
+                webSocketManager.reconfigure(new URI(current.webSocket().url()), current.webSocket().token());
+            } catch (URISyntaxException e) {
+                // validate 已检查过地址格式
+                throw new IllegalArgumentException(e);
             }
+        }
 
-            if (rconManager != null) {
-                rconManager.close();
-            }
+        if (!previous.rcon().equals(current.rcon())) {
+            rconManager.reconfigure();
+        }
 
-            // 关闭线程池
-            ExecutorService es = executorService.getAndSet(null);
-            if (es != null) {
-                try {
-                    es.shutdown();
-                    if (!es.awaitTermination(500, TimeUnit.MILLISECONDS)) {
-                        es.shutdownNow();
-                    }
-                } catch (InterruptedException e) {
-                    es.shutdownNow();
-                    Thread.currentThread().interrupt();
-                }
+        ConfigSnapshot.Sampling sampling = current.sampling();
+        if (!previous.sampling().equals(sampling)) {
+            telemetrySampler.setIntervalTicks(sampling.telemetryIntervalTicks());
+            presenceTracker.setIntervalTicks(sampling.presenceIntervalTicks());
+            if (sampling.presenceEnabled()) {
+                presenceTracker.start();
+            } else {
+                presenceTracker.stop();
             }
+        }
+
+        if (previous.placeholders().refreshIntervalTicks() != current.placeholders().refreshIntervalTicks()) {
+            hostDataCache.setIntervalTicks(current.placeholders().refreshIntervalTicks());
+        }
+
+        if (!previous.language().equals(current.language())) {
+            i18n.setFallbackLang(current.language().fallback());
+            stopLanguageWatcher();
+            startLanguageWatcher();
+        }
+
+        if (!previous.dispatcher().equals(current.dispatcher())) {
+            logger.warning("dispatcher.idempotency changes take effect after a restart");
+        }
+
+        logger.info("Configuration reloaded");
+    }
 
-            logger.info("ALL SERVICES HAS STOPPED");
-        });
+    private synchronized void startLanguageWatcher() {
+        if (configManager.isLanguageReloadEnabled() && languageWatcher == null) {
+            languageWatcher = new LanguageWatcher(i18n, logger, configManager.getLanguageReloadDebounceMillis());
+            languageWatcher.start();
+        }
+    }
+
+    private synchronized void stopLanguageWatcher() {
+        if (languageWatcher != null) {
+            languageWatcher.stop();
+            languageWatcher = null;
+        }
+    }
+
+    private void startSamplers() {
+        telemetrySampler.start();
+        hostDataCache.start();
+        if (configManager.isPresenceEnabled()) {
+            presenceTracker.start();
+        }
+    }
+
+    /**
+     * 异步停止所有服务，按顺序进行：停止接受新请求与定时推送 -> 等待已接受的请求 -> 写出发送队列 ->
+     * 结束等待主机响应的请求 -> 发送 client.goodbye -> 关闭连接 -> 停止执行器
+     * 每个阶段有各自的时限，整体不超过 {@link #SHUTDOWN_TIMEOUT_MILLIS}
+     */
+    public CompletableFuture<Void> stopServicesAsync() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MILLIS);
+        return CompletableFuture.runAsync(() -> shutdownGracefully(deadline), executionManager.io())
+                // 当前任务也在 io 执行器中，由独立线程等待执行器停止
+                .thenCompose(v -> executionManager.shutdownAsync(remainingMillis(deadline)))
+                .thenRun(() -> logger.info("ALL SERVICES HAS STOPPED"));
     }
 
     /**
-     * 停止所有服务
+     * 停止所有服务，阻塞直到完成，顺序与时限同 {@link #stopServicesAsync()}
      */
 
     public void stopServices() {
-        logger.info("Stopping services......");
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MILLIS);
+        shutdownGracefully(deadline);
+        executionManager.shutdown(remainingMillis(deadline));
+        logger.info("ALL SERVICES HAS STOPPED");
+    }
 
+    private void shutdownGracefully(long deadline) {
+        logger.info("Stopping services......");
+        long startedAt = System.nanoTime();
+        StringJoiner phases = new StringJoiner(", ");
+
+        // 停止接受新请求，停止所有会产生推送的定时任务
+        // 关闭期间主线程阻塞在 onDisable，需要主线程的请求与内置命令不会再执行，直接失败而不计入等待
+        int cancelled = 0;
+        if (requestDispatcher != null) {
+            cancelled += requestDispatcher.stopAccepting();
+        }
+        if (rconManager != null) {
+            cancelled += rconManager.beginShutdown();
+        }
         if (webSocketManager != null) {
-            webSocketManager.close(1001);
+            webSocketManager.beginShutdown();
+        }
+        stopProducers();
+        long phaseStart = endPhase(phases, "stop-accepting(cancelled " + cancelled + ")", startedAt);
+
+        try {
+            // 等待已接受的请求执行完并发出响应
+            if (requestDispatcher != null
+                    && !requestDispatcher.awaitIdle(phaseDeadline(deadline, DRAIN_TIMEOUT_MILLIS))) {
+                logger.warning(requestDispatcher.getPendingCount() + " requests still running, no response will be sent");
+            }
+            phaseStart = endPhase(phases, "drain", phaseStart);
+
+            if (webSocketManager != null) {
+                // 先等待 cpu 执行器中尚未发出的通知与响应，再等待连接的发送队列写出
+                long flushDeadline = phaseDeadline(deadline, FLUSH_TIMEOUT_MILLIS);
+                if (!executionManager.cpu().awaitIdle(flushDeadline) || !webSocketManager.awaitFlushed(flushDeadline)) {
+                    logger.warning("Outbound queue not flushed before shutdown deadline");
+                }
+                phaseStart = endPhase(phases, "flush", phaseStart);
+
+                int failed = webSocketManager.failPendingRequests("Client is shutting down");
+                phaseStart = endPhase(phases, "fail-pending(" + failed + ")", phaseStart);
+
+                // 主机端据此区分正常下线与断线
+                if (webSocketManager.isConnected()) {
+                    JsonObject params = new JsonObject();
+                    params.addProperty("reason", "shutdown");
+                    webSocketManager.sendNotification("client.goodbye", params);
+                }
+                phaseStart = endPhase(phases, "goodbye", phaseStart);
+
+                // 关闭帧排在发送队列之后，goodbye 会先于关闭帧写出
+                if (!webSocketManager.closeGracefully(1001, phaseDeadline(deadline, CLOSE_TIMEOUT_MILLIS))) {
+                    logger.warning("WebSocket close handshake timed out, connection dropped");
+                }
+                endPhase(phases, "close", phaseStart);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (webSocketManager != null) {
+                webSocketManager.close(1001);
+            }
         }
 
         if (rconManager != null) {
             rconManager.close();
         }
 
-        logger.info("ALL SERVICES HAS STOPPED");
+        logger.info("Shutdown phases: " + phases + " (total "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt) + " ms)");
+    }
+
+    private void stopProducers() {
+        stopLanguageWatcher();
+
+        if (presenceTracker != null) {
+            presenceTracker.stop();
+        }
+
+        if (hostDataCache != null) {
+            hostDataCache.stop();
+        }
+
+        if (metricsStreamer != null) {
+            metricsStreamer.clear();
+        }
+
+        if (telemetrySampler != null) {
+            telemetrySampler.stop();
+        }
+    }
+
+    /**
+     * 记录阶段耗时
+     *
+     * @return 下一阶段的开始时间
+     */
+    private static long endPhase(StringJoiner phases, String name, long phaseStart) {
+        long now = System.nanoTime();
+        phases.add(name + " " + TimeUnit.NANOSECONDS.toMillis(now - phaseStart) + " ms");
+        return now;
+    }
+
+    /**
+     * 阶段截止时间：不超过阶段时限，也不超过整体截止时间
+     */
+    private static long phaseDeadline(long deadline, long phaseTimeoutMillis) {
+        long phaseDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(phaseTimeoutMillis);
+        return phaseDeadline - deadline < 0 ? phaseDeadline : deadline;
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(MIN_EXECUTOR_SHUTDOWN_MILLIS, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
     }
 
     // Getter 方法
@@ -221,11 +434,39 @@ public class ServiceManager {
     }
 
 
+    public BindStatusCache getBindStatusCache() {
+        return bindStatusCache;
+    }
+
+    public HostDataCache getHostDataCache() {
+        return hostDataCache;
+    }
+
+    public PresenceTracker getPresenceTracker() {
+        return presenceTracker;
+    }
+
+
+    public TelemetrySampler getTelemetrySampler() {
+        return telemetrySampler;
+    }
+
+
     public RequestDispatcher getRequestDispatcher() {
         return requestDispatcher;
     }
 
 
+    public ExecutionManager getExecutionManager() {
+        return executionManager;
+    }
+
+
+    public FGateApiProvider getApi() {
+        return api;
+    }
+
+
     public String getClientVersion() {
         return clientVersion;
     }
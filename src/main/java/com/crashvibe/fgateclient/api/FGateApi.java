@@ -0,0 +1,70 @@
+package com.crashvibe.fgateclient.api;
+
+import com.crashvibe.fgateclient.handler.RequestHandler;
+import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.google.gson.JsonObject;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * FGateClient 对外 API - 通过 Bukkit ServicesManager 获取
+ * <pre>
+ * FGateApi api = Bukkit.getServicesManager().load(FGateApi.class);
+ * </pre>
+ * 其他插件可以注册自己的请求处理器，并复用 FGateClient 与主机端的唯一连接收发消息
+ */
+public interface FGateApi {
+
+    /**
+     * 注册请求处理器，插件禁用时会自动注销
+     *
+     * @throws IllegalArgumentException 方法名已被注册
+     */
+    void registerHandler(Plugin owner, RequestHandler handler);
+
+    /**
+     * 注销指定插件注册的请求处理器
+     *
+     * @return 是否存在并已注销
+     */
+    boolean unregisterHandler(Plugin owner, String method);
+
+    /**
+     * 注销指定插件注册的全部请求处理器
+     */
+    void unregisterHandlers(Plugin owner);
+
+    /**
+     * 获取指定插件已注册的方法名
+     */
+    Set<String> getRegisteredMethods(Plugin owner);
+
+    /**
+     * 向主机端发送请求
+     */
+    CompletableFuture<JsonObject> sendRequest(String method, JsonObject params);
+
+    /**
+     * 获取主机端服务接口的类型化调用桩，接口方法需标注 {@link RpcMethod}
+     *
+     * @see RpcClient
+     */
+    <T> T createClient(Class<T> service);
+
+    /**
+     * 向主机端发送通知
+     */
+    void sendNotification(String method, JsonObject params);
+
+    /**
+     * 与主机端的连接是否可用
+     */
+    boolean isConnected();
+
+    /**
+     * 获取共享的 WebSocket 连接，用于构造 {@link RequestHandler}
+     */
+    WebSocketManager getWebSocketManager();
+}
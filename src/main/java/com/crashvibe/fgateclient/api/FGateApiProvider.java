@@ -0,0 +1,102 @@
+package com.crashvibe.fgateclient.api;
+
+import com.crashvibe.fgateclient.handler.RequestDispatcher;
+import com.crashvibe.fgateclient.handler.RequestHandler;
+import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.google.gson.JsonObject;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.Listener;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * FGateApi 实现 - 记录每个插件注册的方法，插件禁用时自动注销
+ */
+public class FGateApiProvider implements FGateApi, Listener {
+
+    private final RequestDispatcher requestDispatcher;
+    private final WebSocketManager webSocketManager;
+    private final Logger logger;
+    private final RpcClient rpcClient;
+    private final Map<String, Set<String>> methodsByOwner = new ConcurrentHashMap<>();
+
+    public FGateApiProvider(RequestDispatcher requestDispatcher, WebSocketManager webSocketManager, Logger logger) {
+        this.requestDispatcher = requestDispatcher;
+        this.webSocketManager = webSocketManager;
+        this.logger = logger;
+        this.rpcClient = new RpcClient(webSocketManager);
+    }
+
+    @Override
+    public void registerHandler(Plugin owner, RequestHandler handler) {
+        if (!requestDispatcher.registerHandlerIfAbsent(handler)) {
+            throw new IllegalArgumentException("Method " + handler.getMethod() + " is already registered");
+        }
+        methodsByOwner.computeIfAbsent(owner.getName(), name -> ConcurrentHashMap.newKeySet()).add(handler.getMethod());
+        logger.info(owner.getName() + " registered method: " + handler.getMethod());
+    }
+
+    @Override
+    public boolean unregisterHandler(Plugin owner, String method) {
+        Set<String> methods = methodsByOwner.get(owner.getName());
+        if (methods == null || !methods.remove(method)) {
+            return false;
+        }
+        return requestDispatcher.unregisterHandler(method);
+    }
+
+    @Override
+    public void unregisterHandlers(Plugin owner) {
+        Set<String> methods = methodsByOwner.remove(owner.getName());
+        if (methods == null || methods.isEmpty()) {
+            return;
+        }
+
+        for (String method : methods) {
+            requestDispatcher.unregisterHandler(method);
+        }
+        logger.info("Unregistered " + methods.size() + " methods of " + owner.getName());
+    }
+
+    @Override
+    public Set<String> getRegisteredMethods(Plugin owner) {
+        Set<String> methods = methodsByOwner.get(owner.getName());
+        return methods == null ? Set.of() : Set.copyOf(methods);
+    }
+
+    @Override
+    public CompletableFuture<JsonObject> sendRequest(String method, JsonObject params) {
+        return webSocketManager.sendRequestAsync(method, params);
+    }
+
+    @Override
+    public <T> T createClient(Class<T> service) {
+        return rpcClient.create(service);
+    }
+
+    @Override
+    public void sendNotification(String method, JsonObject params) {
+        webSocketManager.sendNotificationAsync(method, params);
+    }
+
+    @Override
+    public boolean isConnected() {
+        return webSocketManager.isConnected();
+    }
+
+    @Override
+    public WebSocketManager getWebSocketManager() {
+        return webSocketManager;
+    }
+
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent event) {
+        unregisterHandlers(event.getPlugin());
+    }
+}
@@ -0,0 +1,181 @@
+package com.crashvibe.fgateclient.api;
+
+import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 主机端 RPC 客户端 - 根据服务接口生成类型化的调用桩
+ * <pre>
+ * interface PlayerService {
+ *     &#64;RpcMethod("player.bindQuery")
+ *     CompletableFuture&lt;BindQueryResult&gt; bindQuery(&#64;RpcParam("playerName") String name);
+ * }
+ * PlayerService players = rpcClient.create(PlayerService.class);
+ * </pre>
+ * 返回值均为不阻塞线程的 CompletableFuture，并发调用直接写入同一连接，按请求 id 匹配响应，
+ * 不需要等待前一个调用返回。参数列表中的 {@link Duration} 参数作为本次调用的超时时间
+ */
+public class RpcClient {
+
+    private static final Gson GSON = new Gson();
+    private static final long DEFAULT_TIMEOUT_MILLIS = 5000;
+
+    private final WebSocketManager webSocketManager;
+    private final Map<Class<?>, Object> stubs = new ConcurrentHashMap<>();
+
+    public RpcClient(WebSocketManager webSocketManager) {
+        this.webSocketManager = webSocketManager;
+    }
+
+    /**
+     * 获取服务接口的调用桩，同一接口只生成一次
+     */
+    public <T> T create(Class<T> service) {
+        return service.cast(stubs.computeIfAbsent(service, this::createStub));
+    }
+
+    private Object createStub(Class<?> service) {
+        if (!service.isInterface()) {
+            throw new IllegalArgumentException(service.getName() + " is not an interface");
+        }
+
+        // 注解只在生成调用桩时解析一次
+        Map<Method, Call> calls = new HashMap<>();
+        for (Method method : service.getMethods()) {
+            if (!method.isDefault() && !Modifier.isStatic(method.getModifiers())) {
+                calls.put(method, Call.of(method));
+            }
+        }
+
+        InvocationHandler handler = (proxy, method, args) -> {
+            Call call = calls.get(method);
+            if (call != null) {
+                return call.invoke(webSocketManager, args);
+            }
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            return switch (method.getName()) {
+                case "equals" -> proxy == args[0];
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "toString" -> "RpcClient stub for " + service.getName();
+                default -> throw new UnsupportedOperationException(method.toString());
+            };
+        };
+        return Proxy.newProxyInstance(service.getClassLoader(), new Class<?>[]{service}, handler);
+    }
+
+    /**
+     * 单个接口方法的调用描述
+     *
+     * @param paramNames    每个参数对应的 JSON 参数名，null 表示该参数整体作为 params，空字符串表示超时参数
+     * @param resultType    响应 result 的目标类型
+     */
+    private record Call(String method, long timeoutMillis, String[] paramNames, Type resultType) {
+
+        static Call of(Method method) {
+            RpcMethod rpcMethod = method.getAnnotation(RpcMethod.class);
+            if (rpcMethod == null) {
+                throw new IllegalArgumentException(method + " is missing @RpcMethod");
+            }
+            if (method.getReturnType() != CompletableFuture.class) {
+                throw new IllegalArgumentException(method + " must return CompletableFuture");
+            }
+
+            Type returnType = method.getGenericReturnType();
+            Type resultType = returnType instanceof ParameterizedType parameterized
+                    ? parameterized.getActualTypeArguments()[0]
+                    : JsonObject.class;
+
+            Class<?>[] types = method.getParameterTypes();
+            String[] names = new String[types.length];
+            int objectParams = 0;
+            for (int i = 0; i < types.length; i++) {
+                RpcParam rpcParam = method.getParameters()[i].getAnnotation(RpcParam.class);
+                if (types[i] == Duration.class) {
+                    names[i] = "";
+                } else if (rpcParam != null) {
+                    names[i] = rpcParam.value();
+                } else {
+                    objectParams++;
+                }
+            }
+            if (objectParams > 1 || (objectParams == 1 && types.length > countTimeouts(types) + 1)) {
+                throw new IllegalArgumentException(method + " mixes a params object with other params");
+            }
+
+            long timeout = rpcMethod.timeoutMillis() > 0 ? rpcMethod.timeoutMillis() : DEFAULT_TIMEOUT_MILLIS;
+            return new Call(rpcMethod.value(), timeout, names, resultType);
+        }
+
+        private static int countTimeouts(Class<?>[] types) {
+            int count = 0;
+            for (Class<?> type : types) {
+                if (type == Duration.class) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        CompletableFuture<Object> invoke(WebSocketManager webSocketManager, Object[] args) {
+            JsonObject params = null;
+            long timeout = timeoutMillis;
+
+            for (int i = 0; args != null && i < args.length; i++) {
+                String name = paramNames[i];
+                Object arg = args[i];
+                if ("".equals(name)) {
+                    if (arg != null) {
+                        timeout = ((Duration) arg).toMillis();
+                    }
+                } else if (name == null) {
+                    params = arg instanceof JsonObject object ? object : GSON.toJsonTree(arg).getAsJsonObject();
+                } else {
+                    if (params == null) {
+                        params = new JsonObject();
+                    }
+                    params.add(name, GSON.toJsonTree(arg));
+                }
+            }
+
+            return webSocketManager.sendRequestAsync(method, params, timeout).thenApply(this::decode);
+        }
+
+        private Object decode(JsonObject response) {
+            if (response.has("error") && !response.get("error").isJsonNull()) {
+                JsonElement error = response.get("error");
+                if (error.isJsonObject()) {
+                    JsonObject errorObj = error.getAsJsonObject();
+                    int code = errorObj.has("code") ? errorObj.get("code").getAsInt() : -1;
+                    String message = errorObj.has("message") ? errorObj.get("message").getAsString() : error.toString();
+                    throw new RpcException(code, method + ": " + message);
+                }
+                throw new RpcException(-1, method + ": " + error);
+            }
+
+            JsonElement result = response.get("result");
+            if (resultType == Void.class || result == null || result.isJsonNull()) {
+                return null;
+            }
+            if (resultType == JsonObject.class) {
+                return result.getAsJsonObject();
+            }
+            return GSON.fromJson(result, resultType);
+        }
+    }
+}
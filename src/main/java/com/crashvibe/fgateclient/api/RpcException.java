@@ -0,0 +1,18 @@
+package com.crashvibe.fgateclient.api;
+
+/**
+ * 主机端返回的 JSON-RPC 错误
+ */
+public class RpcException extends RuntimeException {
+
+    private final int code;
+
+    public RpcException(int code, String message) {
+        super(message);
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+}
@@ -0,0 +1,24 @@
+package com.crashvibe.fgateclient.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明主机端服务接口方法对应的 JSON-RPC 方法名
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface RpcMethod {
+
+    /**
+     * JSON-RPC 方法名，例如 player.bindQuery
+     */
+    String value();
+
+    /**
+     * 调用超时（毫秒），小于等于 0 时使用默认值
+     */
+    long timeoutMillis() default 0;
+}
@@ -0,0 +1,16 @@
+package com.crashvibe.fgateclient.api;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明方法参数对应的 JSON-RPC 参数名
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface RpcParam {
+
+    String value();
+}
@@ -0,0 +1,66 @@
+package com.crashvibe.fgateclient.api.host;
+
+import com.crashvibe.fgateclient.api.RpcMethod;
+import com.crashvibe.fgateclient.api.RpcParam;
+import com.google.gson.JsonObject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 主机端玩家服务 - 绑定查询、绑定与解绑、玩家数据
+ */
+public interface PlayerService {
+
+    @RpcMethod("player.bindQuery")
+    CompletableFuture<BindQueryResult> bindQuery(@RpcParam("playerName") String playerName,
+                                                 @RpcParam("playerUUID") String playerUUID);
+
+    @RpcMethod("player.bind")
+    CompletableFuture<BindResult> bind(@RpcParam("playerName") String playerName,
+                                       @RpcParam("playerUUID") String playerUUID);
+
+    @RpcMethod("player.unbind")
+    CompletableFuture<UnbindResult> unbind(@RpcParam("playerName") String playerName,
+                                           @RpcParam("playerUUID") String playerUUID);
+
+    /**
+     * 玩家登录通知，result 中的 action 为 kick 时拒绝登录
+     */
+    @RpcMethod("player.join")
+    CompletableFuture<JsonObject> join(@RpcParam("player") String player,
+                                       @RpcParam("uuid") String uuid,
+                                       @RpcParam("ip") String ip,
+                                       @RpcParam("timestamp") long timestamp);
+
+    /**
+     * 批量获取玩家在主机端的数据，供 PlaceholderAPI 变量使用
+     */
+    @RpcMethod("player.data.batch")
+    CompletableFuture<PlayerDataBatch> dataBatch(@RpcParam("players") List<String> playerUUIDs);
+
+    record BindQueryResult(boolean isBind) {
+    }
+
+    record BindResult(String authCode) {
+    }
+
+    record UnbindResult(boolean isSuccess, String message) {
+    }
+
+    /**
+     * @param players 玩家 UUID -> 数据，主机端没有记录的玩家不包含在内
+     */
+    record PlayerDataBatch(Map<String, PlayerData> players) {
+    }
+
+    /**
+     * @param account 绑定的账户名，未绑定时为 null
+     * @param group   玩家所在的用户组，没有时为 null
+     */
+    record PlayerData(boolean isBind, String account, String group) {
+
+        public static final PlayerData NONE = new PlayerData(false, null, null);
+    }
+}
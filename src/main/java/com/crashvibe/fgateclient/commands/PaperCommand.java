@@ -1,19 +1,30 @@
 package com.crashvibe.fgateclient.commands;
 
 import com.crashvibe.fgateclient.FGateClient;
-import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.crashvibe.fgateclient.api.host.PlayerService;
+import com.crashvibe.fgateclient.handler.Bulkhead;
+import com.crashvibe.fgateclient.handler.HandlerMetrics;
+import com.crashvibe.fgateclient.handler.RequestDispatcher;
+import com.crashvibe.fgateclient.service.BindStatusCache;
+import com.crashvibe.fgateclient.service.RconResultCache;
 import com.crashvibe.fgateclient.utils.I18n;
-import com.google.gson.JsonObject;
+import com.crashvibe.fgateclient.utils.InstrumentedExecutor;
 import com.mojang.brigadier.Command;
 import com.mojang.brigadier.tree.LiteralCommandNode;
+import com.tcoded.folialib.FoliaLib;
 import io.papermc.paper.command.brigadier.CommandSourceStack;
 import io.papermc.paper.command.brigadier.Commands;
-import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 
-import java.util.HashMap;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
 
 import static net.kyori.adventure.text.Component.text;
 import static net.kyori.adventure.text.format.NamedTextColor.GOLD;
@@ -21,64 +32,96 @@ import static net.kyori.adventure.text.format.NamedTextColor.RED;
 
 public class PaperCommand {
     private static final I18n i18n = FGateClient.getInstance().getServiceManager().getI18n();
-    private static final WebSocketManager webSocketManager = FGateClient.getInstance().getServiceManager().getWebSocketManager();
+    private static final PlayerService playerService =
+            FGateClient.getInstance().getServiceManager().getApi().createClient(PlayerService.class);
+    private static final BindStatusCache bindStatusCache =
+            FGateClient.getInstance().getServiceManager().getBindStatusCache();
+    private static final FoliaLib foliaLib = FGateClient.getInstance().getServiceManager().getFoliaLib();
+    // 正在执行绑定或解绑请求的玩家
+    private static final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
 
     private static int unbind_player(CommandSender sender) {
         if (!(sender instanceof Player player)) {
-            sender.sendMessage(NamedTextColor.RED + i18n.get("player_only"));
+            sender.sendMessage(text(i18n.get("player_only"), RED));
             return Command.SINGLE_SUCCESS;
         }
-        JsonObject params = new JsonObject();
-        AtomicReference<JsonObject> bindResult = new AtomicReference<>(new JsonObject());
-        AtomicReference<JsonObject> data = new AtomicReference<>(new JsonObject());
-
-        params.addProperty("playerName", player.getName());
-        params.addProperty("playerUUID", player.getUniqueId().toString());
-
-        webSocketManager.sendRequestAsync("player.bindQuery", params).thenAccept(bindResult::set);
-        if (!bindResult.get().getAsJsonObject("result").get("isBind").getAsBoolean()) {
-            sender.sendMessage(NamedTextColor.GOLD + i18n.get("not_bind_yet"));
-        } else {
-            webSocketManager.sendRequestAsync("player.unbind", params).thenAccept(data::set);
-            if (!data.get().getAsJsonObject("result").get("isSuccess").getAsBoolean()) {
-                sender.sendMessage(NamedTextColor.RED + i18n.get("unbind_fail"));
-                sender.sendMessage(NamedTextColor.RED + data.get().getAsJsonObject("result").get("message").getAsString());
-                return Command.SINGLE_SUCCESS;
-            }
-            sender.sendMessage(NamedTextColor.GOLD + i18n.get("unbind_success"));
-            player.kickPlayer(i18n.get("player_unbind"));
 
-        }
+        runExclusive(player, (name, uuid) -> bindStatusCache.get(name, uuid)
+                .<Consumer<Player>>thenCompose(bound -> {
+                    if (!bound) {
+                        return CompletableFuture.<Consumer<Player>>completedFuture(
+                                p -> p.sendMessage(text(i18n.get("not_bind_yet", p), GOLD)));
+                    }
+                    return playerService.unbind(name, uuid.toString()).<Consumer<Player>>thenApply(result -> {
+                        if (!result.isSuccess()) {
+                            return p -> {
+                                p.sendMessage(text(i18n.get("unbind_fail", p), RED));
+                                if (result.message() != null) {
+                                    p.sendMessage(text(result.message(), RED));
+                                }
+                            };
+                        }
+                        bindStatusCache.put(uuid, false);
+                        return p -> {
+                            p.sendMessage(text(i18n.get("unbind_success", p), GOLD));
+                            p.kick(text(i18n.get("player_unbind", p)));
+                        };
+                    });
+                }));
         return Command.SINGLE_SUCCESS;
     }
 
     private static int bind_player(CommandSender sender) {
-        JsonObject params = new JsonObject();
-        AtomicReference<JsonObject> bindResult = new AtomicReference<>(new JsonObject());
-        AtomicReference<JsonObject> data = new AtomicReference<>(new JsonObject());
-        if (sender instanceof Player player) {
-            params.addProperty("playerName", player.getName());
-            params.addProperty("playerUUID", player.getUniqueId().toString());
-        } else {
-            sender.sendMessage(NamedTextColor.RED + i18n.get("player_only"));
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(text(i18n.get("player_only"), RED));
             return Command.SINGLE_SUCCESS;
         }
 
+        runExclusive(player, (name, uuid) -> bindStatusCache.get(name, uuid)
+                .<Consumer<Player>>thenCompose(bound -> {
+                    if (bound) {
+                        return CompletableFuture.<Consumer<Player>>completedFuture(
+                                p -> p.sendMessage(text(i18n.get("already_bind", p), GOLD)));
+                    }
+                    return playerService.bind(name, uuid.toString()).<Consumer<Player>>thenApply(result ->
+                            p -> p.sendMessage(text(i18n.format("got_auth_code", p, "auth_code", result.authCode()),
+                                    GOLD)));
+                }));
+        return Command.SINGLE_SUCCESS;
+    }
 
-        webSocketManager.sendRequestAsync("player.bindQuery", params).thenAccept(bindResult::set);
-        if (bindResult.get().getAsJsonObject("result").get("isBind").getAsBoolean()) {
-            sender.sendMessage(NamedTextColor.GOLD + i18n.get("already_bind"));
-        } else {
-            webSocketManager.sendRequestAsync("player.bind", params).thenAccept(data::set);
-            String auth_code = data.get().getAsJsonObject("result").get("authCode").getAsString();
-            HashMap<String, String> formatParam = new HashMap<>();
-            formatParam.put("auth_code", auth_code);
-            sender.sendMessage(NamedTextColor.GOLD + i18n.format("got_auth_code", formatParam));
+    /**
+     * 在后台执行主机请求链，完成后在玩家所在的实体调度器上回复
+     * 同一玩家同时只允许一个请求链，重复执行指令直接提示稍后再试
+     *
+     * @param flow 参数为玩家名与 UUID，返回需要对玩家执行的回复
+     */
+    private static void runExclusive(Player player,
+                                     BiFunction<String, UUID, CompletableFuture<Consumer<Player>>> flow) {
+        UUID uuid = player.getUniqueId();
+        if (!inFlight.add(uuid)) {
+            player.sendMessage(text(i18n.get("request_in_progress", player), RED));
+            return;
+        }
 
+        CompletableFuture<Consumer<Player>> reply;
+        try {
+            reply = flow.apply(player.getName(), uuid);
+        } catch (RuntimeException e) {
+            reply = CompletableFuture.failedFuture(e);
         }
-        return Command.SINGLE_SUCCESS;
 
+        reply.exceptionally(throwable -> {
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                            ? throwable.getCause() : throwable;
+                    FGateClient.getInstance().getLogger().warning(
+                            "Bind request for " + player.getName() + " failed: " + cause.getMessage());
+                    return p -> p.sendMessage(text(i18n.get("request_failed", p), RED));
+                })
+                .thenAccept(action -> foliaLib.getScheduler().runAtEntity(player, task -> action.accept(player)))
+                .whenComplete((ignored, throwable) -> inFlight.remove(uuid));
     }
+
     public static LiteralCommandNode<CommandSourceStack> bindCommand(){
         return Commands.literal("bind").requires(source -> source.getSender().hasPermission("fgate.player.bind")).executes(context -> bind_player(context.getSource().getSender()))
 
@@ -98,6 +141,18 @@ public class PaperCommand {
                             sendInfoMessage(context.getSource().getSender());
                             return Command.SINGLE_SUCCESS;
                         }))
+                .then(Commands.literal("stats")
+                        .requires(source -> source.getSender().hasPermission("fgate.admin.remoteclient"))
+                        .executes(context -> {
+                            sendStatsMessage(context.getSource().getSender());
+                            return Command.SINGLE_SUCCESS;
+                        }))
+                .then(Commands.literal("reload")
+                        .requires(source -> source.getSender().hasPermission("fgate.admin.remoteclient"))
+                        .executes(context -> {
+                            reloadConfig(context.getSource().getSender());
+                            return Command.SINGLE_SUCCESS;
+                        }))
                 .then(Commands.literal("bind")
                         .requires(source -> source.getSender().hasPermission("fgate.admin.bind"))
                         .executes(context -> {
@@ -134,4 +189,72 @@ public class PaperCommand {
                 GOLD
         ));
     }
+
+    private static void reloadConfig(CommandSender sender) {
+        FGateClient.getInstance().getServiceManager().reloadConfigAsync().whenComplete((config, throwable) -> {
+            if (throwable == null) {
+                sender.sendMessage(text("Configuration reloaded", GOLD));
+            } else {
+                Throwable cause = throwable.getCause() != null ? throwable.getCause() : throwable;
+                sender.sendMessage(text("Reload failed, keeping current configuration: " + cause.getMessage(), RED));
+            }
+        });
+    }
+
+    private static void sendStatsMessage(CommandSender sender) {
+        RconResultCache rconCache = FGateClient.getInstance().getServiceManager().getRconManager().getResultCache();
+        sender.sendMessage(text(
+                "RCON cache: " + rconCache.getHitCount() + " hits / " + rconCache.getMissCount() + " misses ("
+                        + rconCache.getCachedCommandCount() + " commands)",
+                GOLD
+        ));
+
+        sender.sendMessage(text(
+                "Bind status cache: " + bindStatusCache.getHitCount() + " hits / " + bindStatusCache.getMissCount()
+                        + " misses (" + bindStatusCache.size() + " players)",
+                GOLD
+        ));
+
+        for (InstrumentedExecutor.Snapshot executor : FGateClient.getInstance().getServiceManager()
+                .getExecutionManager().snapshots()) {
+            sender.sendMessage(text(
+                    "Executor " + executor.name() + ": " + executor.active() + " active, " + executor.queued()
+                            + " queued, " + executor.completed() + "/" + executor.submitted() + " done, "
+                            + executor.failed() + " failed, " + executor.rejected() + " saturated, wait avg "
+                            + executor.avgQueueWaitMicros() + "us max " + executor.maxQueueWaitMillis()
+                            + "ms, exec avg " + executor.avgExecutionMicros() + "us max "
+                            + executor.maxExecutionMillis() + "ms",
+                    GOLD
+            ));
+        }
+
+        RequestDispatcher dispatcher = FGateClient.getInstance().getServiceManager().getRequestDispatcher();
+        sender.sendMessage(text(
+                "Duplicate requests suppressed: " + dispatcher.getIdempotencyCache().getSuppressedCount(),
+                GOLD
+        ));
+        Map<String, Bulkhead> bulkheads = dispatcher.getBulkheads();
+        for (Map.Entry<String, HandlerMetrics.Snapshot> entry : dispatcher.getMetrics().entrySet()) {
+            HandlerMetrics.Snapshot metrics = entry.getValue();
+            Bulkhead bulkhead = bulkheads.get(entry.getKey());
+            sender.sendMessage(text(
+                    entry.getKey() + ": " + metrics.calls() + " calls, " + metrics.successes() + " ok, "
+                            + metrics.errors() + " errors, " + metrics.timeouts() + " timeouts",
+                    GOLD
+            ));
+            sender.sendMessage(text(
+                    "  exec avg " + metrics.avgExecutionMicros() + "us, p50/p95/p99 <= " + metrics.p50Millis() + "/"
+                            + metrics.p95Millis() + "/" + metrics.p99Millis() + "ms, max " + metrics.maxExecutionMillis()
+                            + "ms, queue avg " + metrics.avgQueueWaitMicros() + "us, " + metrics.payloadBytes() + " bytes in",
+                    GOLD
+            ));
+            if (bulkhead != null) {
+                sender.sendMessage(text(
+                        "  " + bulkhead.getInFlight() + " in-flight, " + bulkhead.getQueued() + " queued, "
+                                + bulkhead.getRejected() + " rejected",
+                        GOLD
+                ));
+            }
+        }
+    }
 }
@@ -2,11 +2,13 @@ package com.crashvibe.fgateclient.example;
 
 import com.crashvibe.fgateclient.FGateClient;
 import com.crashvibe.fgateclient.ServiceManager;
+import com.crashvibe.fgateclient.api.RpcMethod;
 import com.crashvibe.fgateclient.service.RconManager;
 import com.crashvibe.fgateclient.service.WebSocketManager;
 import com.google.gson.JsonObject;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 
 /**
@@ -47,7 +49,7 @@ public class AsyncOperationExample {
             } catch (Exception e) {
                 logger.severe("Failed to initialize service manager: " + e.getMessage());
             }
-        });
+        }, plugin.getServiceManager().getExecutionManager().io());
     }
 
     /**
@@ -85,26 +87,16 @@ public class AsyncOperationExample {
         }
 
         RconManager rconManager = serviceManager.getRconManager();
-        WebSocketManager webSocketManager = serviceManager.getWebSocketManager();
+        StatsService statsService = serviceManager.getApi().createClient(StatsService.class);
 
         // 链式执行多个异步操作
         rconManager.executeCommandAsync("list")
                 .thenCompose(playerList -> {
-                    // 基于玩家列表创建统计信息
-                    JsonObject stats = new JsonObject();
-                    stats.addProperty("playerCount", playerList.split("\n").length);
-                    stats.addProperty("timestamp", System.currentTimeMillis());
-
-                    // 异步发送统计信息到服务器
-                    return webSocketManager.sendRequestAsync("server.stats", stats);
-                })
-                .thenAccept(response -> {
-                    if (response != null && !response.has("error")) {
-                        logger.info("Server stats sent successfully");
-                    } else {
-                        logger.warning("Failed to send server stats");
-                    }
+                    // 基于玩家列表创建统计信息，异步发送到服务器
+                    return statsService.report(new ServerStats(playerList.split("\n").length,
+                            System.currentTimeMillis()));
                 })
+                .thenAccept(ignored -> logger.info("Server stats sent successfully"))
                 .exceptionally(throwable -> {
                     logger.warning("Chained operations failed: " + throwable.getMessage());
                     return null;
@@ -204,7 +196,7 @@ public class AsyncOperationExample {
                     break;
                 }
             }
-        });
+        }, serviceManager.getExecutionManager().io());
 
         // 可以通过 reconnectionTask.cancel(true) 来停止重连任务
     }
@@ -222,7 +214,8 @@ public class AsyncOperationExample {
 
         // 批量清理操作
         CompletableFuture<Integer> cleanupFuture = webSocketManager.cleanupTimeoutRequestsAsync();
-        CompletableFuture<Void> cacheClearFuture = serviceManager.getI18n().clearCacheAsync();
+        CompletableFuture<Void> cacheClearFuture = serviceManager.getI18n()
+                .clearCacheAsync(serviceManager.getExecutionManager().io());
 
         CompletableFuture.allOf(cleanupFuture, cacheClearFuture)
                 .thenRun(() -> {
@@ -249,16 +242,19 @@ public class AsyncOperationExample {
             return;
         }
 
+        // 文件读取都在 io 执行器上进行
+        Executor io = serviceManager.getExecutionManager().io();
+
         // 异步重载配置
-        serviceManager.getConfigManager().loadConfigAsync()
+        serviceManager.getConfigManager().loadConfigAsync(io)
                 .thenCompose(v -> {
                     // 验证新配置
-                    return serviceManager.getConfigManager().validateConfigAsync();
+                    return serviceManager.getConfigManager().validateConfigAsync(io);
                 })
                 .thenCompose(v -> {
                     // 重新初始化 I18n
-                    return serviceManager.getI18n().clearCacheAsync()
-                            .thenCompose(cleared -> serviceManager.getI18n().preloadLanguageFilesAsync());
+                    return serviceManager.getI18n().clearCacheAsync(io)
+                            .thenCompose(cleared -> serviceManager.getI18n().preloadLanguageFilesAsync(io));
                 })
                 .thenRun(() -> {
                     logger.info("Configuration reloaded successfully");
@@ -269,6 +265,18 @@ public class AsyncOperationExample {
                 });
     }
 
+    /**
+     * 示例所用的主机端统计服务
+     */
+    public interface StatsService {
+
+        @RpcMethod("server.stats")
+        CompletableFuture<Void> report(ServerStats stats);
+    }
+
+    public record ServerStats(int playerCount, long timestamp) {
+    }
+
     // 辅助方法
     private void postInitializationTasks() {
         logger.info("Executing post-initialization tasks...");
@@ -1,11 +1,14 @@
 package com.crashvibe.fgateclient.example;
 
+import com.crashvibe.fgateclient.api.RpcClient;
+import com.crashvibe.fgateclient.api.RpcMethod;
+import com.crashvibe.fgateclient.api.RpcParam;
 import com.crashvibe.fgateclient.service.WebSocketManager;
 import com.google.gson.JsonObject;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.logging.Logger;
 
 /**
@@ -17,30 +20,58 @@ public class AsyncWebSocketExample {
 
     private final WebSocketManager webSocketManager;
     private final Logger logger;
+    private final ExampleService service;
+    private final Executor executor;
 
-    public AsyncWebSocketExample(WebSocketManager webSocketManager, Logger logger) {
+    /**
+     * @param executor 长时间运行的示例任务的执行器，通常为 ExecutionManager 的 io 执行器
+     */
+    public AsyncWebSocketExample(WebSocketManager webSocketManager, Logger logger, Executor executor) {
         this.webSocketManager = webSocketManager;
         this.logger = logger;
+        this.executor = executor;
+        this.service = new RpcClient(webSocketManager).create(ExampleService.class);
+    }
+
+    /**
+     * 示例所用的主机端服务接口，方法在调用时直接映射为 JSON-RPC 请求
+     */
+    public interface ExampleService {
+
+        @RpcMethod("player.info")
+        CompletableFuture<JsonObject> playerInfo(@RpcParam("playerName") String playerName);
+
+        @RpcMethod("server.status")
+        CompletableFuture<JsonObject> serverStatus();
+
+        @RpcMethod(value = "world.info", timeoutMillis = 10000)
+        CompletableFuture<JsonObject> worldInfo(@RpcParam("worldName") String worldName);
+
+        @RpcMethod("auth.login")
+        CompletableFuture<LoginResult> login(LoginParams params);
+
+        @RpcMethod("user.profile")
+        CompletableFuture<JsonObject> profile(@RpcParam("token") String token);
+
+        @RpcMethod("user.settings")
+        CompletableFuture<JsonObject> settings(@RpcParam("token") String token, Duration timeout);
+    }
+
+    public record LoginParams(String username, String password) {
+    }
+
+    public record LoginResult(String token) {
     }
 
     /**
      * 示例1: 异步发送单个请求
      */
     public void sendSingleRequestExample() {
-        JsonObject params = new JsonObject();
-        params.addProperty("action", "getPlayerInfo");
-        params.addProperty("playerName", "testPlayer");
-
-        // 使用异步方法，不阻塞当前线程
-        webSocketManager.sendRequestAsync("player.info", params)
-                .thenAccept(response -> {
-                    if (response != null && !response.has("error")) {
-                        logger.info("Player info received: " + response);
-                    } else {
-                        logger.warning("Failed to get player info");
-                    }
-                })
+        // 使用类型化调用桩，不阻塞当前线程
+        service.playerInfo("testPlayer")
+                .thenAccept(info -> logger.info("Player info received: " + info))
                 .exceptionally(throwable -> {
+                    // 主机端返回的错误以 RpcException 形式出现
                     logger.severe("Error getting player info: " + throwable.getMessage());
                     return null;
                 });
@@ -49,30 +80,19 @@ public class AsyncWebSocketExample {
     }
 
     /**
-     * 示例2: 批量发送多个请求
+     * 示例2: 同时发送多个请求
      */
     public void sendMultipleRequestsExample() {
-        Map<String, JsonObject> requests = new HashMap<>();
-
-        // 准备多个请求
-        JsonObject playerParams = new JsonObject();
-        playerParams.addProperty("playerName", "testPlayer");
-        requests.put("player.info", playerParams);
-
-        JsonObject serverParams = new JsonObject();
-        requests.put("server.status", serverParams);
-
-        JsonObject worldParams = new JsonObject();
-        worldParams.addProperty("worldName", "world");
-        requests.put("world.info", worldParams);
-
-        // 批量发送并处理响应
-        webSocketManager.sendMultipleRequestsAsync(requests)
-                .thenAccept(responses -> {
-                    logger.info("Received " + responses.size() + " responses");
-                    for (Map.Entry<String, JsonObject> entry : responses.entrySet()) {
-                        logger.info("Response for " + entry.getKey() + ": " + entry.getValue());
-                    }
+        // 三个请求立即全部发出，按请求 id 匹配各自的响应，总耗时取决于最慢的一个
+        CompletableFuture<JsonObject> player = service.playerInfo("testPlayer");
+        CompletableFuture<JsonObject> server = service.serverStatus();
+        CompletableFuture<JsonObject> world = service.worldInfo("world");
+
+        CompletableFuture.allOf(player, server, world)
+                .thenRun(() -> {
+                    logger.info("Response for player.info: " + player.join());
+                    logger.info("Response for server.status: " + server.join());
+                    logger.info("Response for world.info: " + world.join());
                 })
                 .exceptionally(throwable -> {
                     logger.severe("Error in batch requests: " + throwable.getMessage());
@@ -116,39 +136,19 @@ public class AsyncWebSocketExample {
      * 示例4: 链式异步操作
      */
     public void chainedOperationsExample() {
-        JsonObject loginParams = new JsonObject();
-        loginParams.addProperty("username", "admin");
-        loginParams.addProperty("password", "secret");
-
-        // 链式执行多个异步操作
-        webSocketManager.sendRequestAsync("auth.login", loginParams)
-                .thenCompose(loginResponse -> {
-                    if (loginResponse != null && !loginResponse.has("error")) {
-                        logger.info("Login successful");
-                        // 登录成功后获取用户信息
-                        JsonObject userParams = new JsonObject();
-                        return webSocketManager.sendRequestAsync("user.profile", userParams);
-                    } else {
-                        throw new RuntimeException("Login failed");
-                    }
-                })
-                .thenCompose(profileResponse -> {
-                    if (profileResponse != null && !profileResponse.has("error")) {
-                        logger.info("Profile loaded: " + profileResponse);
-                        // 加载用户设置
-                        JsonObject settingsParams = new JsonObject();
-                        return webSocketManager.sendRequestAsync("user.settings", settingsParams);
-                    } else {
-                        throw new RuntimeException("Failed to load profile");
-                    }
-                })
-                .thenAccept(settingsResponse -> {
-                    if (settingsResponse != null && !settingsResponse.has("error")) {
-                        logger.info("Settings loaded: " + settingsResponse);
-                    } else {
-                        logger.warning("Failed to load settings");
-                    }
+        // 链式执行多个异步操作，任一步骤出错都会跳到 exceptionally
+        service.login(new LoginParams("admin", "secret"))
+                .thenCompose(login -> {
+                    logger.info("Login successful");
+                    // 登录成功后获取用户信息
+                    return service.profile(login.token())
+                            .thenCompose(profile -> {
+                                logger.info("Profile loaded: " + profile);
+                                // 加载用户设置，单独指定超时时间
+                                return service.settings(login.token(), Duration.ofSeconds(2));
+                            });
                 })
+                .thenAccept(settings -> logger.info("Settings loaded: " + settings))
                 .exceptionally(throwable -> {
                     logger.severe("Chained operations failed: " + throwable.getMessage());
                     return null;
@@ -188,7 +188,7 @@ public class AsyncWebSocketExample {
                     logger.severe("Maintenance task error: " + e.getMessage());
                 }
             }
-        });
+        }, executor);
 
         // 可以通过 maintenanceTask.cancel(true) 来停止维护任务
     }
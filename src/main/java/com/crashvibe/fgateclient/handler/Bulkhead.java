@@ -0,0 +1,100 @@
+package com.crashvibe.fgateclient.handler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 方法级隔离舱 - 限制单个方法的并发执行数与排队数，避免某一方法占满共享线程池
+ */
+public class Bulkhead {
+
+    private final int maxConcurrency;
+    private final int maxQueued;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param maxConcurrency 最大并发数，小于等于 0 表示不限制
+     * @param maxQueued      达到并发上限后允许排队的请求数
+     */
+    public Bulkhead(int maxConcurrency, int maxQueued) {
+        this.maxConcurrency = maxConcurrency > 0 ? maxConcurrency : Integer.MAX_VALUE;
+        this.maxQueued = Math.max(0, maxQueued);
+    }
+
+    /**
+     * 提交任务，有空闲名额时立即启动，否则排队；队列已满时拒绝
+     * 任务结束后必须调用 {@link #release()}
+     *
+     * @return 是否被接受
+     */
+    public boolean submit(Runnable start) {
+        if (tryAcquire()) {
+            start.run();
+            return true;
+        }
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+
+        waiting.add(start);
+        // 入队期间可能有任务结束，重新检查避免任务滞留
+        drain();
+        return true;
+    }
+
+    /**
+     * 任务结束时释放名额，并启动下一个排队任务
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+
+    private void drain() {
+        while (!waiting.isEmpty() && tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                inFlight.decrementAndGet();
+                continue;
+            }
+            queued.decrementAndGet();
+            next.run();
+        }
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrency) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public boolean isLimited() {
+        return maxConcurrency != Integer.MAX_VALUE;
+    }
+}
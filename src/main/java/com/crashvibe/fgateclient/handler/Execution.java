@@ -0,0 +1,36 @@
+package com.crashvibe.fgateclient.handler;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明请求处理器的执行策略，未声明时使用 {@link ExecutionPolicy#ASYNC}
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Execution {
+
+    ExecutionPolicy value() default ExecutionPolicy.ASYNC;
+
+    /**
+     * {@link ExecutionPolicy#ENTITY} 策略下用于定位玩家的参数名，按顺序取第一个存在的参数
+     */
+    String[] entityKeys() default {};
+
+    /**
+     * 该方法允许同时执行的最大请求数，小于等于 0 表示不限制
+     */
+    int maxConcurrency() default 0;
+
+    /**
+     * 达到并发上限后允许排队等待的请求数，超出后直接返回错误
+     */
+    int maxQueued() default 0;
+
+    /**
+     * 请求被拒绝时建议主机端等待的重试时间（毫秒）
+     */
+    long retryAfterMillis() default 1000;
+}
@@ -0,0 +1,27 @@
+package com.crashvibe.fgateclient.handler;
+
+/**
+ * 请求处理器的执行策略 - 决定请求被分发到哪个线程执行
+ */
+public enum ExecutionPolicy {
+    /**
+     * 在接收消息的线程上直接执行，仅适用于不阻塞的轻量处理器
+     */
+    INLINE,
+    /**
+     * 在插件的有界计算线程池执行，适用于不阻塞的处理器
+     */
+    ASYNC,
+    /**
+     * 在虚拟线程上执行，适用于会阻塞等待 I/O 的处理器
+     */
+    VIRTUAL,
+    /**
+     * 在全局区域线程（非 Folia 为主线程）执行
+     */
+    GLOBAL,
+    /**
+     * 在参数指定玩家所在的实体区域线程执行
+     */
+    ENTITY
+}
@@ -0,0 +1,134 @@
+package com.crashvibe.fgateclient.handler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 处理器指标 - 记录单个方法的排队耗时、执行耗时分布、结果计数与请求大小
+ * 全部使用分段计数器，写入开销低，可以在生产环境常开
+ */
+public class HandlerMetrics {
+
+    // 执行耗时直方图桶上限（毫秒），最后一个桶收纳超出部分
+    private static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder executionNanos = new LongAdder();
+    private final LongAccumulator maxExecutionNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder payloadBytes = new LongAdder();
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+
+    public HandlerMetrics() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 请求进入分发器
+     */
+    void recordReceived(int payloadSize) {
+        calls.increment();
+        if (payloadSize > 0) {
+            payloadBytes.add(payloadSize);
+        }
+    }
+
+    /**
+     * 处理器执行完成（包括抛出异常的情况）
+     */
+    void recordExecution(long queueWait, long execution) {
+        completed.increment();
+        queueWaitNanos.add(queueWait);
+        executionNanos.add(execution);
+        maxExecutionNanos.accumulate(execution);
+        buckets[bucketOf(TimeUnit.NANOSECONDS.toMillis(execution))].increment();
+    }
+
+    /**
+     * 处理失败（抛出异常或返回错误响应）
+     */
+    void recordError(Throwable cause) {
+        errors.increment();
+        if (isTimeout(cause)) {
+            timeouts.increment();
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+
+        long done = completed.sum();
+        long errorCount = errors.sum();
+        return new Snapshot(
+                calls.sum(),
+                Math.max(0, done - errorCount),
+                errorCount,
+                timeouts.sum(),
+                done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(queueWaitNanos.sum() / done),
+                done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(executionNanos.sum() / done),
+                TimeUnit.NANOSECONDS.toMillis(maxExecutionNanos.get()),
+                percentile(counts, 0.50),
+                percentile(counts, 0.95),
+                percentile(counts, 0.99),
+                payloadBytes.sum());
+    }
+
+    private static int bucketOf(long millis) {
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            if (millis <= BUCKET_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MILLIS.length;
+    }
+
+    /**
+     * 根据直方图估算分位数，返回所在桶的上限（毫秒），超出最大桶时返回 -1
+     */
+    private static long percentile(long[] counts, double quantile) {
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * quantile);
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= threshold) {
+                return i < BUCKET_BOUNDS_MILLIS.length ? BUCKET_BOUNDS_MILLIS[i] : -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isTimeout(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 指标快照，耗时分位数为直方图桶上限（毫秒）
+     */
+    public record Snapshot(long calls, long successes, long errors, long timeouts,
+                           long avgQueueWaitMicros, long avgExecutionMicros, long maxExecutionMillis,
+                           long p50Millis, long p95Millis, long p99Millis, long payloadBytes) {
+    }
+}
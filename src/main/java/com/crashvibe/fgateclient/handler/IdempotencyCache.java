@@ -0,0 +1,126 @@
+package com.crashvibe.fgateclient.handler;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 请求幂等缓存 - 按 JSON-RPC id 记录近期请求及其响应，主机端重发的请求直接返回已有结果
+ * 条目按到达顺序保存，超出容量或时间窗口后从最旧的开始淘汰；响应以序列化后的字符串保存
+ */
+public class IdempotencyCache {
+
+    // 单个响应保留的最大字符数
+    private static final int MAX_RESPONSE_CHARS = 64 * 1024;
+
+    private final int capacity;
+    private final long windowNanos;
+    // 插入顺序即到达顺序，队首总是最旧的条目
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private final LongAdder suppressed = new LongAdder();
+
+    public IdempotencyCache(int capacity, long windowSeconds) {
+        this.capacity = Math.max(1, capacity);
+        this.windowNanos = TimeUnit.SECONDS.toNanos(Math.max(1, windowSeconds));
+    }
+
+    /**
+     * 登记请求
+     *
+     * @return null 表示首次出现，需要正常处理；否则返回已有记录，调用方不应重复执行
+     */
+    public synchronized Entry begin(String requestId) {
+        long now = System.nanoTime();
+        evict(now);
+
+        Entry existing = entries.get(requestId);
+        if (existing != null) {
+            suppressed.increment();
+            return existing;
+        }
+
+        entries.put(requestId, new Entry(now + windowNanos));
+        return null;
+    }
+
+    /**
+     * 记录请求的响应，只对仍在登记中的请求生效
+     */
+    public synchronized void complete(String requestId, String response) {
+        Entry entry = entries.get(requestId);
+        if (entry == null || entry.response != null) {
+            return;
+        }
+
+        if (response.length() > MAX_RESPONSE_CHARS) {
+            // 过大的响应不保留，重发时重新执行
+            entries.remove(requestId);
+            return;
+        }
+        entry.response = response;
+    }
+
+    /**
+     * 移除登记，之后相同 id 的请求会被重新执行（例如请求被限流拒绝时）
+     */
+    public synchronized void forget(String requestId) {
+        entries.remove(requestId);
+    }
+
+    /**
+     * 标记请求已正常结束；不发送响应的请求（如 kick.player）在时间窗口内仍视为已执行，重发直接丢弃
+     */
+    public synchronized void finish(String requestId) {
+        Entry entry = entries.get(requestId);
+        if (entry != null) {
+            entry.finished = true;
+        }
+    }
+
+    public long getSuppressedCount() {
+        return suppressed.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(long now) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        int size = entries.size();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (size < capacity && now - entry.expiresAt < 0) {
+                break;
+            }
+            iterator.remove();
+            size--;
+        }
+    }
+
+    /**
+     * 已登记的请求，response 为 null 表示仍在处理中或已结束但没有响应
+     */
+    public static final class Entry {
+        private final long expiresAt;
+        private volatile String response;
+        private volatile boolean finished;
+
+        private Entry(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        public String getResponse() {
+            return response;
+        }
+
+        /**
+         * 处理器是否已正常结束
+         */
+        public boolean isFinished() {
+            return finished;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.crashvibe.fgateclient.handler;
+
+/**
+ * 请求参数缺失或类型错误，对应 JSON-RPC -32602 错误
+ */
+public class InvalidParamsException extends IllegalArgumentException {
+
+    public InvalidParamsException(String message) {
+        super(message);
+    }
+}
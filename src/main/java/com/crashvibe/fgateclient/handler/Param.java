@@ -0,0 +1,24 @@
+package com.crashvibe.fgateclient.handler;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注请求参数记录的组件，指定 JSON 参数名以及是否必需
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.RECORD_COMPONENT)
+public @interface Param {
+
+    /**
+     * JSON 中的参数名，为空时使用组件名
+     */
+    String value() default "";
+
+    /**
+     * 是否必需，缺失的可选参数绑定为 null、0 或 false
+     */
+    boolean required() default true;
+}
@@ -0,0 +1,201 @@
+package com.crashvibe.fgateclient.handler;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.RecordComponent;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 请求参数解码器 - 每种参数记录类型只构建一次，按字段直接绑定 JSON 参数
+ * 解码时只遍历一次参数，通过构造器 MethodHandle 创建记录，不做反射查找
+ */
+public final class ParamsDecoder<P extends Record> {
+
+    private static final ClassValue<ParamsDecoder<?>> DECODERS = new ClassValue<>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected ParamsDecoder<?> computeValue(Class<?> type) {
+            return new ParamsDecoder(type.asSubclass(Record.class));
+        }
+    };
+
+    private final Class<P> type;
+    private final MethodHandle constructor;
+    private final Field[] fields;
+    private final Map<String, Integer> indexByName;
+
+    private ParamsDecoder(Class<P> type) {
+        this.type = type;
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = new Class<?>[components.length];
+        this.fields = new Field[components.length];
+        Map<String, Integer> index = new HashMap<>();
+
+        for (int i = 0; i < components.length; i++) {
+            RecordComponent component = components[i];
+            Param param = component.getAnnotation(Param.class);
+            String name = param != null && !param.value().isEmpty() ? param.value() : component.getName();
+            boolean required = param == null || param.required();
+
+            parameterTypes[i] = component.getType();
+            fields[i] = new Field(name, required, readerFor(type, component));
+            index.put(name, i);
+        }
+        this.indexByName = Map.copyOf(index);
+
+        try {
+            Constructor<P> canonical = type.getDeclaredConstructor(parameterTypes);
+            canonical.setAccessible(true);
+            this.constructor = MethodHandles.lookup().unreflectConstructor(canonical)
+                    .asSpreader(Object[].class, components.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot access canonical constructor of " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 获取参数记录类型对应的解码器
+     */
+    @SuppressWarnings("unchecked")
+    public static <P extends Record> ParamsDecoder<P> of(Class<P> type) {
+        return (ParamsDecoder<P>) DECODERS.get(type);
+    }
+
+    /**
+     * 从已解析的 params 对象绑定参数，params 为 null 时视为空对象
+     */
+    public P decode(JsonObject params) throws InvalidParamsException {
+        Object[] values = new Object[fields.length];
+        if (params != null) {
+            for (Map.Entry<String, JsonElement> entry : params.entrySet()) {
+                Integer i = indexByName.get(entry.getKey());
+                if (i != null && !entry.getValue().isJsonNull()) {
+                    values[i] = fields[i].reader.read(entry.getValue(), fields[i].name);
+                }
+            }
+        }
+        return construct(values);
+    }
+
+    private P construct(Object[] values) {
+        for (int i = 0; i < fields.length; i++) {
+            if (values[i] == null) {
+                if (fields[i].required) {
+                    throw new InvalidParamsException("Argument '" + fields[i].name + "' is required, but it's missing!");
+                }
+                values[i] = fields[i].reader.defaultValue();
+            }
+        }
+
+        try {
+            return type.cast((Object) constructor.invokeExact(values));
+        } catch (InvalidParamsException e) {
+            throw e;
+        } catch (IllegalArgumentException e) {
+            // 记录紧凑构造器中的校验失败
+            throw new InvalidParamsException(e.getMessage());
+        } catch (Throwable t) {
+            throw new IllegalStateException("Failed to create " + type.getSimpleName(), t);
+        }
+    }
+
+    private static ValueReader readerFor(Class<?> owner, RecordComponent component) {
+        Class<?> raw = component.getType();
+        if (raw == String.class) {
+            return ValueReader.of(null, (element, name) -> primitive(element, name, "a string").getAsString());
+        }
+        if (raw == int.class || raw == Integer.class) {
+            return ValueReader.of(raw == int.class ? 0 : null,
+                    (element, name) -> number(element, name).getAsInt());
+        }
+        if (raw == long.class || raw == Long.class) {
+            return ValueReader.of(raw == long.class ? 0L : null,
+                    (element, name) -> number(element, name).getAsLong());
+        }
+        if (raw == double.class || raw == Double.class) {
+            return ValueReader.of(raw == double.class ? 0D : null,
+                    (element, name) -> number(element, name).getAsDouble());
+        }
+        if (raw == boolean.class || raw == Boolean.class) {
+            return ValueReader.of(raw == boolean.class ? Boolean.FALSE : null, (element, name) -> {
+                if (!element.isJsonPrimitive() || !element.getAsJsonPrimitive().isBoolean()) {
+                    throw new InvalidParamsException("Argument '" + name + "' must be a boolean");
+                }
+                return element.getAsBoolean();
+            });
+        }
+        if (raw == List.class && isListOfStrings(component.getGenericType())) {
+            return ValueReader.of(null, (element, name) -> {
+                if (!element.isJsonArray()) {
+                    throw new InvalidParamsException("Argument '" + name + "' must be an array of strings");
+                }
+                JsonArray array = element.getAsJsonArray();
+                List<String> list = new ArrayList<>(array.size());
+                for (JsonElement item : array) {
+                    list.add(primitive(item, name, "an array of strings").getAsString());
+                }
+                return Collections.unmodifiableList(list);
+            });
+        }
+        if (JsonElement.class.isAssignableFrom(raw)) {
+            return ValueReader.of(null, (element, name) -> {
+                if (!raw.isInstance(element)) {
+                    throw new InvalidParamsException("Argument '" + name + "' has wrong type");
+                }
+                return element;
+            });
+        }
+        throw new IllegalArgumentException("Unsupported param type " + component.getGenericType()
+                + " of " + owner.getSimpleName() + "." + component.getName());
+    }
+
+    private static boolean isListOfStrings(Type type) {
+        return type instanceof ParameterizedType parameterized
+                && parameterized.getActualTypeArguments()[0] == String.class;
+    }
+
+    private static JsonElement primitive(JsonElement element, String name, String expected) {
+        if (!element.isJsonPrimitive()) {
+            throw new InvalidParamsException("Argument '" + name + "' must be " + expected);
+        }
+        return element;
+    }
+
+    private static JsonElement number(JsonElement element, String name) {
+        if (!element.isJsonPrimitive() || !element.getAsJsonPrimitive().isNumber()) {
+            throw new InvalidParamsException("Argument '" + name + "' must be a number");
+        }
+        return element;
+    }
+
+    private record Field(String name, boolean required, ValueReader reader) {
+    }
+
+    private interface Conversion {
+        Object convert(JsonElement element, String name);
+    }
+
+    private record ValueReader(Object defaultValue, Conversion conversion) {
+
+        static ValueReader of(Object defaultValue, Conversion conversion) {
+            return new ValueReader(defaultValue, conversion);
+        }
+
+        Object read(JsonElement element, String name) {
+            return conversion.convert(element, name);
+        }
+    }
+}
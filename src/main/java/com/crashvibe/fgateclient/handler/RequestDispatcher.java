@@ -1,10 +1,22 @@
 package com.crashvibe.fgateclient.handler;
 
+import com.crashvibe.fgateclient.service.PlayerManager;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.tcoded.folialib.FoliaLib;
+import com.tcoded.folialib.enums.EntityTaskResult;
+import org.bukkit.entity.Player;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,48 +25,454 @@ import java.util.logging.Logger;
  */
 public class RequestDispatcher {
 
+    // JSON-RPC 服务端错误码，表示方法繁忙
+    private static final int SERVER_BUSY = -32000;
+    // JSON-RPC 服务端错误码，表示客户端正在关闭
+    private static final int SHUTTING_DOWN = -32001;
+
     private final Logger logger;
     private final FoliaLib foliaLib;
-    private final Map<String, RequestHandler> handlers = new HashMap<>();
+    private final PlayerManager playerManager;
+    private final IdempotencyCache idempotencyCache;
+    private final Executor cpuExecutor;
+    private final Executor ioExecutor;
+    // 分发表写时复制，注册与注销时整体替换，分发时只读不加锁
+    private volatile Map<String, Route> routes = Map.of();
+    private volatile boolean accepting = true;
+    // 已接受但尚未结束的请求，请求的完成阶段结束时移除
+    private final Set<PendingRequest> pending = ConcurrentHashMap.newKeySet();
 
-    public RequestDispatcher(Logger logger, FoliaLib foliaLib) {
+    /**
+     * @param cpuExecutor ASYNC 策略的执行位置
+     * @param ioExecutor  VIRTUAL 策略的执行位置
+     */
+    public RequestDispatcher(Logger logger, FoliaLib foliaLib, PlayerManager playerManager,
+                             IdempotencyCache idempotencyCache, Executor cpuExecutor, Executor ioExecutor) {
         this.logger = logger;
         this.foliaLib = foliaLib;
+        this.playerManager = playerManager;
+        this.idempotencyCache = idempotencyCache;
+        this.cpuExecutor = cpuExecutor;
+        this.ioExecutor = ioExecutor;
     }
 
     /**
-     * 注册请求处理器
+     * 注册请求处理器，同名方法会被替换
      */
-    public RequestDispatcher registerHandler(RequestHandler handler) {
-        handlers.put(handler.getMethod(), handler);
-        logger.info("Reg method: " + handler.getMethod());
+    public synchronized RequestDispatcher registerHandler(RequestHandler handler) {
+        putRoute(createRoute(handler));
         return this;
     }
 
+    /**
+     * 注册请求处理器，方法名已存在时不注册
+     *
+     * @return 是否注册成功
+     */
+    public synchronized boolean registerHandlerIfAbsent(RequestHandler handler) {
+        if (routes.containsKey(handler.getMethod())) {
+            return false;
+        }
+        putRoute(createRoute(handler));
+        return true;
+    }
+
+    /**
+     * 注销请求处理器，正在执行的请求不受影响
+     *
+     * @return 是否存在并已注销
+     */
+    public synchronized boolean unregisterHandler(String method) {
+        if (!routes.containsKey(method)) {
+            return false;
+        }
+
+        Map<String, Route> copy = new HashMap<>(routes);
+        copy.remove(method);
+        routes = Map.copyOf(copy);
+        logger.info("Unreg method: " + method);
+        return true;
+    }
+
+    private Route createRoute(RequestHandler handler) {
+        Execution execution = handler.getClass().getAnnotation(Execution.class);
+        ExecutionPolicy policy = execution != null ? execution.value() : ExecutionPolicy.ASYNC;
+        String[] entityKeys = execution != null ? execution.entityKeys() : new String[0];
+        if (policy == ExecutionPolicy.ENTITY && entityKeys.length == 0) {
+            throw new IllegalArgumentException("Handler " + handler.getMethod() + " uses ENTITY policy without entityKeys");
+        }
+
+        Bulkhead bulkhead = execution != null
+                ? new Bulkhead(execution.maxConcurrency(), execution.maxQueued())
+                : new Bulkhead(0, 0);
+        long retryAfterMillis = execution != null ? execution.retryAfterMillis() : 1000;
+
+        HandlerMetrics metrics = new HandlerMetrics();
+        handler.bindMetrics(metrics);
+        return new Route(handler, policy, entityKeys, bulkhead, retryAfterMillis, metrics);
+    }
+
+    private void putRoute(Route route) {
+        // 写时复制：注册与注销只在锁内替换整张表，分发不受影响
+        Map<String, Route> copy = new HashMap<>(routes);
+        copy.put(route.handler().getMethod(), route);
+        routes = Map.copyOf(copy);
+        logger.info("Reg method: " + route.handler().getMethod() + " (" + route.policy() + ")");
+    }
+
     /**
      * 分发请求
      */
     public void dispatch(String method, JsonObject request) {
-        RequestHandler handler = handlers.get(method);
-        if (handler == null) {
+        dispatch(method, request, 0);
+    }
+
+    /**
+     * 分发请求
+     *
+     * @param payloadSize 原始消息长度，未知时传 0
+     */
+    public void dispatch(String method, JsonObject request, int payloadSize) {
+        Route route = routes.get(method);
+        if (route == null) {
             logger.warning("Unknow method: " + method);
             return;
         }
 
-        // 异步处理请求
-        foliaLib.getScheduler().runAsync(task -> {
-            try {
-                handler.handle(request);
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, "ERROR: " + method, e);
+        String requestId = getRequestId(request);
+        if (!accepting) {
+            rejectShuttingDown(method, requestId, route);
+            return;
+        }
+        if (requestId != null && suppressDuplicate(route, requestId)) {
+            return;
+        }
+
+        route.metrics().recordReceived(payloadSize);
+        PendingRequest call = new PendingRequest(route, request, System.nanoTime());
+        pending.add(call);
+        if (!route.bulkhead().submit(() -> schedule(call))) {
+            pending.remove(call);
+            reject(route, request);
+            return;
+        }
+        if (!accepting) {
+            // 与 stopAccepting 交错时，由这里补做取消
+            cancelIfMainThreadBound(call);
+        }
+    }
+
+    /**
+     * 主机端重连后可能重发请求，相同 id 的请求不再执行：已有响应时直接重发，仍在处理中则丢弃
+     */
+    private boolean suppressDuplicate(Route route, String requestId) {
+        IdempotencyCache.Entry previous = idempotencyCache.begin(requestId);
+        if (previous == null) {
+            return false;
+        }
+
+        // 已有响应时重发响应；仍在处理中或已结束但没有响应（如 kick.player）时直接丢弃
+        String response = previous.getResponse();
+        if (response != null) {
+            route.handler().webSocketManager.sendRaw(response);
+        }
+        logger.info("Suppressed duplicate request " + requestId + " (" + route.handler().getMethod()
+                + (previous.isFinished() ? ", already executed" : "") + ")");
+        return true;
+    }
+
+    /**
+     * 记录已发送的响应，供重复请求直接返回
+     */
+    public void recordResponse(String requestId, String response) {
+        idempotencyCache.complete(requestId, response);
+    }
+
+    private void schedule(PendingRequest call) {
+        Route route = call.route();
+        if (call.isCancelled()) {
+            // 排队期间已被取消，刚取得的名额直接归还
+            route.bulkhead().release();
+            return;
+        }
+        try {
+            // 每个请求只切换一次线程，直接进入处理器声明的执行位置
+            switch (route.policy()) {
+                case INLINE -> invoke(call);
+                case ASYNC -> cpuExecutor.execute(() -> invoke(call));
+                case VIRTUAL -> ioExecutor.execute(() -> invoke(call));
+                case GLOBAL -> foliaLib.getScheduler().runNextTick(task -> invoke(call));
+                case ENTITY -> dispatchToEntity(call);
             }
-        });
+        } catch (Exception e) {
+            // 调度失败时处理器不会执行，需要归还名额
+            pending.remove(call);
+            settle(call.request(), true);
+            route.bulkhead().release();
+            logger.log(Level.SEVERE, "Failed to schedule " + route.handler().getMethod(), e);
+        }
+    }
+
+    private void dispatchToEntity(PendingRequest call) {
+        Player player = resolvePlayer(call.route(), call.request());
+        if (player == null) {
+            // 找不到玩家时由处理器自行给出结果
+            cpuExecutor.execute(() -> invoke(call));
+            return;
+        }
+
+        foliaLib.getScheduler().runAtEntity(player, task -> invoke(call))
+                .thenAccept(result -> {
+                    if (result != EntityTaskResult.SUCCESS) {
+                        // 玩家已离线，实体调度器不再接受任务
+                        cpuExecutor.execute(() -> invoke(call));
+                    }
+                });
+    }
+
+    private Player resolvePlayer(Route route, JsonObject request) {
+        if (!request.has("params") || !request.get("params").isJsonObject()) {
+            return null;
+        }
+
+        JsonObject params = request.getAsJsonObject("params");
+        for (String key : route.entityKeys()) {
+            JsonElement value = params.get(key);
+            if (value != null && value.isJsonPrimitive()) {
+                return playerManager.findPlayer(value.getAsString());
+            }
+        }
+        return null;
+    }
+
+    private void invoke(PendingRequest call) {
+        Route route = call.route();
+        if (!call.start()) {
+            // 关闭时已取消并回复，只归还名额
+            route.bulkhead().release();
+            return;
+        }
+
+        JsonObject request = call.request();
+        long receivedAt = call.receivedAt();
+        long startedAt = System.nanoTime();
+        CompletionStage<?> completion;
+        try {
+            completion = route.handler().handleAsync(request);
+        } catch (Exception e) {
+            completion = CompletableFuture.failedStage(e);
+        }
+
+        if (completion == null) {
+            finish(call, startedAt, null);
+            return;
+        }
+        // 异步处理器在响应发出后才结束，名额与执行耗时都以此为准，并发上限与直方图才覆盖整个处理过程
+        completion.whenComplete((ignored, throwable) -> finish(call, startedAt, throwable));
+    }
+
+    private void finish(PendingRequest call, long startedAt, Throwable throwable) {
+        Route route = call.route();
+        try {
+            route.metrics().recordExecution(startedAt - call.receivedAt(), System.nanoTime() - startedAt);
+            if (throwable != null) {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null
+                        ? throwable.getCause() : throwable;
+                route.metrics().recordError(cause);
+                logger.log(Level.SEVERE, "ERROR: " + route.handler().getMethod(), cause);
+            }
+        } finally {
+            settle(call.request(), throwable != null);
+            route.bulkhead().release();
+            pending.remove(call);
+        }
+    }
+
+    /**
+     * 请求结束时更新幂等记录：正常结束的请求即使没有响应也保留到窗口结束，重发不再执行；
+     * 处理器抛出异常或调度失败时移除，允许主机端以相同 id 重试
+     */
+    private void settle(JsonObject request, boolean failed) {
+        String requestId = getRequestId(request);
+        if (requestId == null) {
+            return;
+        }
+        if (failed) {
+            idempotencyCache.forget(requestId);
+        } else {
+            idempotencyCache.finish(requestId);
+        }
+    }
+
+    /**
+     * 超出并发与排队上限时立即返回错误，并附带重试建议
+     */
+    private void reject(Route route, JsonObject request) {
+        String method = route.handler().getMethod();
+        String requestId = getRequestId(request);
+        if (requestId == null) {
+            logger.warning("Dropped notification " + method + ": too many concurrent requests");
+            return;
+        }
+
+        // 被拒绝的请求允许主机端以相同 id 重试
+        idempotencyCache.forget(requestId);
+
+        JsonObject data = new JsonObject();
+        data.addProperty("method", method);
+        data.addProperty("retry_after_ms", route.retryAfterMillis());
+        // 被拒绝的请求只计入隔离舱，不计入处理器错误
+        route.handler().webSocketManager.sendErrorResponse(requestId, SERVER_BUSY,
+                "Too many concurrent '" + method + "' requests, retry later", data);
+    }
+
+    /**
+     * 关闭期间收到的请求不执行，主机端可在重新连接后以相同 id 重试
+     */
+    private void rejectShuttingDown(String method, String requestId, Route route) {
+        if (requestId == null) {
+            logger.fine("Dropped notification " + method + ": client is shutting down");
+            return;
+        }
+        route.handler().webSocketManager.sendErrorResponse(requestId, SHUTTING_DOWN, "Client is shutting down", null);
+    }
+
+    /**
+     * 停止接受新请求；尚未开始且需要在主线程或区域线程执行的请求（GLOBAL、ENTITY）直接取消并回复关闭错误，
+     * 关闭期间主线程被占用，这些请求不会再执行；其余已接受的请求继续执行
+     *
+     * @return 取消的请求数
+     */
+    public int stopAccepting() {
+        accepting = false;
+        int cancelled = 0;
+        for (PendingRequest call : pending) {
+            if (cancelIfMainThreadBound(call)) {
+                cancelled++;
+            }
+        }
+        return cancelled;
+    }
+
+    private boolean cancelIfMainThreadBound(PendingRequest call) {
+        ExecutionPolicy policy = call.route().policy();
+        if ((policy != ExecutionPolicy.GLOBAL && policy != ExecutionPolicy.ENTITY) || !call.cancel()) {
+            return false;
+        }
+
+        // 名额由持有者在发现取消时归还（schedule 或 invoke）
+        pending.remove(call);
+        String requestId = getRequestId(call.request());
+        if (requestId != null) {
+            idempotencyCache.forget(requestId);
+        }
+        rejectShuttingDown(call.route().handler().getMethod(), requestId, call.route());
+        return true;
+    }
+
+    /**
+     * 已接受但尚未结束的请求数（排队中、执行中与等待异步响应中）
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * 等待已接受的请求全部结束
+     *
+     * @param deadlineNanos 截止时间（System.nanoTime）
+     * @return 是否在截止时间前全部结束
+     */
+    public boolean awaitIdle(long deadlineNanos) throws InterruptedException {
+        while (getPendingCount() > 0) {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    private static String getRequestId(JsonObject request) {
+        JsonElement id = request.get("id");
+        return id != null && !id.isJsonNull() ? id.getAsString() : null;
     }
 
     /**
      * 获取已注册的处理器数量
      */
     public int getHandlerCount() {
-        return handlers.size();
+        return routes.size();
+    }
+
+    /**
+     * 获取各方法的隔离舱，用于查看执行中与被拒绝的请求数
+     */
+    public Map<String, Bulkhead> getBulkheads() {
+        Map<String, Bulkhead> bulkheads = new TreeMap<>();
+        routes.forEach((method, route) -> bulkheads.put(method, route.bulkhead()));
+        return bulkheads;
+    }
+
+    /**
+     * 获取各方法的调用指标快照
+     */
+    public Map<String, HandlerMetrics.Snapshot> getMetrics() {
+        Map<String, HandlerMetrics.Snapshot> metrics = new TreeMap<>();
+        routes.forEach((method, route) -> metrics.put(method, route.metrics().snapshot()));
+        return metrics;
+    }
+
+    public IdempotencyCache getIdempotencyCache() {
+        return idempotencyCache;
+    }
+
+    private record Route(RequestHandler handler, ExecutionPolicy policy, String[] entityKeys,
+                         Bulkhead bulkhead, long retryAfterMillis, HandlerMetrics metrics) {
+    }
+
+    /**
+     * 已接受的请求，开始执行与关闭时取消只有一方生效；按实例区分，不比较请求内容
+     */
+    private static final class PendingRequest {
+        private final Route route;
+        private final JsonObject request;
+        private final long receivedAt;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private volatile boolean cancelled;
+
+        PendingRequest(Route route, JsonObject request, long receivedAt) {
+            this.route = route;
+            this.request = request;
+            this.receivedAt = receivedAt;
+        }
+
+        Route route() {
+            return route;
+        }
+
+        JsonObject request() {
+            return request;
+        }
+
+        long receivedAt() {
+            return receivedAt;
+        }
+
+        boolean start() {
+            return claimed.compareAndSet(false, true);
+        }
+
+        boolean cancel() {
+            if (!claimed.compareAndSet(false, true)) {
+                return false;
+            }
+            cancelled = true;
+            return true;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
     }
 }
@@ -4,12 +4,20 @@ import com.crashvibe.fgateclient.service.WebSocketManager;
 import com.google.gson.JsonObject;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
 /**
  * WebSocket 请求处理器基类
  */
 public abstract class RequestHandler {
 
+    // 已完成的结果，同步处理器直接返回
+    protected static final CompletionStage<Void> DONE = CompletableFuture.completedStage(null);
+
     protected final WebSocketManager webSocketManager;
+    // 由分发器在注册时绑定，用于统计错误响应
+    private volatile HandlerMetrics metrics;
 
     public RequestHandler(WebSocketManager webSocketManager) {
         this.webSocketManager = webSocketManager;
@@ -25,6 +33,15 @@ public abstract class RequestHandler {
      */
     public abstract void handle(JsonObject request);
 
+    /**
+     * 处理请求，返回的结果在处理真正结束（包括异步发出响应）时完成，分发器据此归还并发名额
+     * 默认在 {@link #handle(JsonObject)} 返回时即视为结束，异步处理的处理器需要覆盖
+     */
+    public CompletionStage<?> handleAsync(JsonObject request) {
+        handle(request);
+        return DONE;
+    }
+
     /**
      * 发送成功响应
      */
@@ -36,9 +53,36 @@ public abstract class RequestHandler {
      * 发送错误响应
      */
     protected void sendErrorResponse(String requestId, String error) {
+        sendErrorResponse(requestId, error, null);
+    }
+
+    /**
+     * 发送由异常导致的错误响应，超时异常会单独计数
+     */
+    protected void sendErrorResponse(String requestId, String error, @Nullable Throwable cause) {
+        recordError(cause);
         webSocketManager.sendResponse(requestId, null, error);
     }
 
+    /**
+     * 发送带错误码与附加数据的错误响应
+     */
+    protected void sendErrorResponse(String requestId, int code, String error, @Nullable JsonObject data) {
+        recordError(null);
+        webSocketManager.sendErrorResponse(requestId, code, error, data);
+    }
+
+    void bindMetrics(HandlerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    private void recordError(@Nullable Throwable cause) {
+        HandlerMetrics current = metrics;
+        if (current != null) {
+            current.recordError(cause);
+        }
+    }
+
     /**
      * 检查请求是否有必需的参数
      */
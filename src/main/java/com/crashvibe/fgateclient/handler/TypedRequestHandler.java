@@ -0,0 +1,64 @@
+package com.crashvibe.fgateclient.handler;
+
+import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 带类型参数的请求处理器 - 参数由 {@link ParamsDecoder} 绑定到记录类型，
+ * 参数缺失或类型错误时统一返回 JSON-RPC -32602 错误
+ *
+ * @param <P> 参数记录类型
+ */
+public abstract class TypedRequestHandler<P extends Record> extends RequestHandler {
+
+    // JSON-RPC 参数错误码
+    protected static final int INVALID_PARAMS = -32602;
+
+    private final ParamsDecoder<P> decoder;
+
+    protected TypedRequestHandler(WebSocketManager webSocketManager, Class<P> paramsType) {
+        super(webSocketManager);
+        this.decoder = ParamsDecoder.of(paramsType);
+    }
+
+    @Override
+    public final void handle(JsonObject request) {
+        handleAsync(request);
+    }
+
+    @Override
+    public final CompletionStage<?> handleAsync(JsonObject request) {
+        String requestId = getRequestId(request);
+
+        P params;
+        try {
+            params = decoder.decode(getParams(request));
+        } catch (InvalidParamsException e) {
+            onInvalidParams(requestId, e.getMessage());
+            return DONE;
+        }
+
+        return handle(requestId, params);
+    }
+
+    /**
+     * 处理已绑定参数的请求
+     *
+     * @param requestId 请求ID，通知类型请求为 null
+     * @return 处理结束（响应已发出）时完成，同步处理返回 {@link #DONE}；
+     * 已通过错误响应报告的失败应正常完成，异常完成只用于未处理的错误
+     */
+    protected abstract CompletionStage<?> handle(@Nullable String requestId, P params);
+
+    /**
+     * 参数校验失败，默认返回 -32602 错误，通知类型请求直接忽略
+     */
+    protected void onInvalidParams(@Nullable String requestId, String message) {
+        if (requestId != null) {
+            sendErrorResponse(requestId, INVALID_PARAMS, "Invalid params: " + message, null);
+        }
+    }
+}
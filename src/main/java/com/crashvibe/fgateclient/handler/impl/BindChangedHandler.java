@@ -0,0 +1,66 @@
+package com.crashvibe.fgateclient.handler.impl;
+
+import com.crashvibe.fgateclient.handler.Execution;
+import com.crashvibe.fgateclient.handler.ExecutionPolicy;
+import com.crashvibe.fgateclient.handler.Param;
+import com.crashvibe.fgateclient.handler.TypedRequestHandler;
+import com.crashvibe.fgateclient.service.BindStatusCache;
+import com.crashvibe.fgateclient.service.HostDataCache;
+import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 绑定状态变化通知处理器 - 主机端在玩家绑定或解绑后推送，更新本地绑定状态缓存并刷新玩家数据
+ */
+@Execution(ExecutionPolicy.INLINE)
+public class BindChangedHandler extends TypedRequestHandler<BindChangedHandler.Params> {
+
+    private final BindStatusCache bindStatusCache;
+    private final HostDataCache hostDataCache;
+
+    public BindChangedHandler(WebSocketManager webSocketManager, BindStatusCache bindStatusCache,
+                              HostDataCache hostDataCache) {
+        super(webSocketManager, Params.class);
+        this.bindStatusCache = bindStatusCache;
+        this.hostDataCache = hostDataCache;
+    }
+
+    @Override
+    public String getMethod() {
+        return "player.bind.changed";
+    }
+
+    @Override
+    protected CompletionStage<?> handle(@Nullable String requestId, Params params) {
+        UUID uuid = UUID.fromString(params.playerUUID());
+        if (params.isBind() != null) {
+            bindStatusCache.put(uuid, params.isBind());
+        } else {
+            bindStatusCache.invalidate(uuid);
+        }
+        // 绑定的账户随之变化
+        hostDataCache.invalidate(uuid);
+
+        if (requestId == null) {
+            return DONE; // 通知类型请求，无需响应
+        }
+
+        JsonObject result = new JsonObject();
+        result.addProperty("success", true);
+        sendSuccessResponse(requestId, result);
+        return DONE;
+    }
+
+    /**
+     * @param isBind 新的绑定状态，省略时只清除缓存，下次使用时重新查询
+     */
+    public record Params(String playerUUID, @Param(required = false) Boolean isBind) {
+        public Params {
+            UUID.fromString(playerUUID);
+        }
+    }
+}
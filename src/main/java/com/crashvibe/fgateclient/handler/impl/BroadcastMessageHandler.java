@@ -1,27 +1,28 @@
 package com.crashvibe.fgateclient.handler.impl;
 
-import com.crashvibe.fgateclient.handler.RequestHandler;
+import com.crashvibe.fgateclient.handler.Execution;
+import com.crashvibe.fgateclient.handler.ExecutionPolicy;
+import com.crashvibe.fgateclient.handler.TypedRequestHandler;
 import com.crashvibe.fgateclient.service.WebSocketManager;
 import com.crashvibe.fgateclient.utils.TextUtil;
-import com.google.gson.JsonObject;
-import com.tcoded.folialib.FoliaLib;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.CompletionStage;
 import java.util.logging.Logger;
 
 /**
- * 广播消息处理器 - 处理来自主机端的广播消息
+ * 广播消息处理器 - 处理来自主机端的广播消息，在全局区域线程执行
  */
-public class BroadcastMessageHandler extends RequestHandler {
+@Execution(ExecutionPolicy.GLOBAL)
+public class BroadcastMessageHandler extends TypedRequestHandler<BroadcastMessageHandler.Params> {
 
     private final Logger logger;
-    private final FoliaLib foliaLib;
 
-    public BroadcastMessageHandler(WebSocketManager webSocketManager, Logger logger, FoliaLib foliaLib) {
-        super(webSocketManager);
+    public BroadcastMessageHandler(WebSocketManager webSocketManager, Logger logger) {
+        super(webSocketManager, Params.class);
         this.logger = logger;
-        this.foliaLib = foliaLib;
     }
 
     @Override
@@ -30,31 +31,27 @@ public class BroadcastMessageHandler extends RequestHandler {
     }
 
     @Override
-    public void handle(JsonObject request) {
-        if (!request.has("params")) {
-            logger.warning("Broadcast message request missing params");
-            return;
-        }
-
-        JsonObject params = request.getAsJsonObject("params");
-        if (!params.has("message")) {
-            logger.warning("Broadcast message request missing message parameter");
-            return;
-        }
-
-        String message = params.get("message").getAsString();
+    protected CompletionStage<?> handle(@Nullable String requestId, Params params) {
+        String message = params.message();
 
         // 解析包含颜色代码的消息
         Component messageComponent = TextUtil.parseText(message);
 
-        // 在主线程中发送消息给所有在线玩家
-        foliaLib.getScheduler().runAsync(task -> {
-            Bukkit.broadcast(messageComponent);
+        Bukkit.broadcast(messageComponent);
+
+        // 记录日志
+        if (logger != null) {
+            logger.info("Broadcasted message to all players: " + TextUtil.stripColors(message));
+        }
+        return DONE;
+    }
+
+    @Override
+    protected void onInvalidParams(@Nullable String requestId, String message) {
+        logger.warning("Broadcast message request rejected: " + message);
+        super.onInvalidParams(requestId, message);
+    }
 
-            // 记录日志
-            if (logger != null) {
-                logger.info("Broadcasted message to all players: " + TextUtil.stripColors(message));
-            }
-        });
+    public record Params(String message) {
     }
 }
@@ -1,19 +1,33 @@
 package com.crashvibe.fgateclient.handler.impl;
 
-import com.crashvibe.fgateclient.handler.RequestHandler;
+import com.crashvibe.fgateclient.handler.Execution;
+import com.crashvibe.fgateclient.handler.ExecutionPolicy;
+import com.crashvibe.fgateclient.handler.Param;
+import com.crashvibe.fgateclient.handler.TypedRequestHandler;
 import com.crashvibe.fgateclient.service.RconManager;
 import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletionStage;
 
 /**
- * 执行 RCON 命令请求处理器
+ * 执行 RCON 命令请求处理器 - 命令执行会阻塞等待结果，因此运行在虚拟线程上
+ * 并发数受限，避免大量慢命令拖垮其他方法
  */
-public class ExecuteRconHandler extends RequestHandler {
+@Execution(value = ExecutionPolicy.VIRTUAL, maxConcurrency = 4, maxQueued = 32, retryAfterMillis = 2000)
+public class ExecuteRconHandler extends TypedRequestHandler<ExecuteRconHandler.Params> {
+
+    private static final String CHUNK_METHOD = "execute.rcon.chunk";
+    // 单个分块的最大行数与最大字符数，任一达到即发送
+    private static final int CHUNK_MAX_LINES = 64;
+    private static final int CHUNK_MAX_CHARS = 16 * 1024;
 
     private final RconManager rconManager;
 
     public ExecuteRconHandler(WebSocketManager webSocketManager, RconManager rconManager) {
-        super(webSocketManager);
+        super(webSocketManager, Params.class);
         this.rconManager = rconManager;
     }
 
@@ -23,28 +37,24 @@ public class ExecuteRconHandler extends RequestHandler {
     }
 
     @Override
-    public void handle(JsonObject request) {
-        String requestId = getRequestId(request);
+    protected CompletionStage<?> handle(@Nullable String requestId, Params params) {
         if (requestId == null) {
-            return; // 无效请求ID
+            return DONE; // 无效请求ID
         }
 
         try {
-            JsonObject params = getParams(request);
-            if (params == null || !params.has("command")) {
-
-                sendErrorResponse(requestId, "Argument 'command' is required, but it's missing!");
-                return;
-            }
-
-            String command = params.get("command").getAsString();
+            String command = params.command();
 
             if (!rconManager.isAvailable()) {
                 sendErrorResponse(requestId, "RCON service is unavailable.");
-                return;
+                return DONE;
+            }
+
+            if (params.stream()) {
+                return executeStreaming(requestId, command);
             }
 
-            String output = rconManager.executeCommand(command);
+            String output = rconManager.executeCommandCached(command);
 
             JsonObject result = new JsonObject();
             result.addProperty("output", output);
@@ -53,7 +63,85 @@ public class ExecuteRconHandler extends RequestHandler {
             sendSuccessResponse(requestId, result);
 
         } catch (Exception e) {
-            sendErrorResponse(requestId, "Fail to excuse RCON command because: " + e.getMessage());
+            sendErrorResponse(requestId, "Fail to excuse RCON command because: " + e.getMessage(), e);
+        }
+        return DONE;
+    }
+
+    /**
+     * 流式模式：输出按行分块发送 execute.rcon.chunk 通知，最后发送汇总响应
+     *
+     * @return 汇总响应发出后完成
+     */
+    private CompletionStage<?> executeStreaming(String requestId, String command) {
+        ChunkWriter writer = new ChunkWriter(requestId);
+        return rconManager.executeCommandStreaming(command, writer::write)
+                .handle((success, throwable) -> {
+                    writer.flush();
+                    if (throwable != null) {
+                        sendErrorResponse(requestId, "Fail to excuse RCON command because: " + throwable.getMessage(),
+                                throwable);
+                        return null;
+                    }
+
+                    JsonObject result = new JsonObject();
+                    result.addProperty("success", success);
+                    result.addProperty("streamed", true);
+                    result.addProperty("chunks", writer.getChunkCount());
+                    result.addProperty("lines", writer.getLineCount());
+
+                    sendSuccessResponse(requestId, result);
+                    return null;
+                });
+    }
+
+    public record Params(String command, @Param(required = false) boolean stream) {
+    }
+
+    /**
+     * 输出分块器 - 缓冲少量行后以通知发送，避免整段输出驻留内存
+     */
+    private class ChunkWriter {
+        private final String requestId;
+        private JsonArray buffer = new JsonArray();
+        private int bufferedChars = 0;
+        private int chunkCount = 0;
+        private int lineCount = 0;
+
+        ChunkWriter(String requestId) {
+            this.requestId = requestId;
+        }
+
+        synchronized void write(String line) {
+            buffer.add(line);
+            bufferedChars += line.length();
+            lineCount++;
+            if (buffer.size() >= CHUNK_MAX_LINES || bufferedChars >= CHUNK_MAX_CHARS) {
+                flush();
+            }
+        }
+
+        synchronized void flush() {
+            if (buffer.isEmpty()) {
+                return;
+            }
+
+            JsonObject params = new JsonObject();
+            params.addProperty("id", requestId);
+            params.addProperty("seq", chunkCount++);
+            params.add("lines", buffer);
+            webSocketManager.sendNotification(CHUNK_METHOD, params);
+
+            buffer = new JsonArray();
+            bufferedChars = 0;
+        }
+
+        synchronized int getChunkCount() {
+            return chunkCount;
+        }
+
+        synchronized int getLineCount() {
+            return lineCount;
         }
     }
 }
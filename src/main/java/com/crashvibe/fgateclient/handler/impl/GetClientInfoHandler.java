@@ -1,7 +1,10 @@
 package com.crashvibe.fgateclient.handler.impl;
 
+import com.crashvibe.fgateclient.handler.Execution;
+import com.crashvibe.fgateclient.handler.ExecutionPolicy;
 import com.crashvibe.fgateclient.handler.RequestHandler;
 import com.crashvibe.fgateclient.service.RconManager;
+import com.crashvibe.fgateclient.service.TelemetrySampler;
 import com.crashvibe.fgateclient.service.WebSocketManager;
 import com.google.gson.JsonObject;
 import org.bukkit.Bukkit;
@@ -9,16 +12,20 @@ import org.bukkit.Bukkit;
 import java.util.logging.Logger;
 
 /**
- * 获取客户端信息请求处理器
+ * 获取客户端信息请求处理器 - 运行状态直接取自采样器的最新快照，不在请求时统计
  */
+@Execution(ExecutionPolicy.INLINE)
 public class GetClientInfoHandler extends RequestHandler {
 
     private final RconManager rconManager;
+    private final TelemetrySampler telemetrySampler;
     private final Logger logger;
 
-    public GetClientInfoHandler(WebSocketManager webSocketManager, RconManager rconManager, Logger logger) {
+    public GetClientInfoHandler(WebSocketManager webSocketManager, RconManager rconManager,
+                                TelemetrySampler telemetrySampler, Logger logger) {
         super(webSocketManager);
         this.rconManager = rconManager;
+        this.telemetrySampler = telemetrySampler;
         this.logger = logger;
     }
 
@@ -30,7 +37,6 @@ public class GetClientInfoHandler extends RequestHandler {
     @Override
     public void handle(JsonObject request) {
         String requestId = getRequestId(request);
-        logger.info("Received request: " + request);
         if (requestId == null) {
             logger.warning("Missed request id!");
             return; // 无效请求ID
@@ -40,9 +46,10 @@ public class GetClientInfoHandler extends RequestHandler {
             JsonObject data = new JsonObject();
             data.addProperty("minecraft_version", Bukkit.getVersion());
             data.addProperty("minecraft_software", Bukkit.getName());
-            data.addProperty("supports_papi", Bukkit.getPluginManager().getPlugin("PlaceholderAPI") != null);
+            data.addProperty("supports_papi", Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI"));
             data.addProperty("supports_rcon", rconManager.isAvailable());
-            data.addProperty("player_count", Bukkit.getOnlinePlayers().size());
+            data.addProperty("player_count", telemetrySampler.getSnapshot().players());
+            data.add("telemetry", telemetrySampler.getSnapshotJson());
 
             JsonObject result = new JsonObject();
             result.add("data", data);
@@ -50,7 +57,7 @@ public class GetClientInfoHandler extends RequestHandler {
             sendSuccessResponse(requestId, result);
 
         } catch (Exception e) {
-            sendErrorResponse(requestId, "Fail to send client info: " + e.getMessage());
+            sendErrorResponse(requestId, "Fail to send client info: " + e.getMessage(), e);
         }
     }
 }
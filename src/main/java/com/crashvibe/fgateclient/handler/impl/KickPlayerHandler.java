@@ -1,20 +1,31 @@
 package com.crashvibe.fgateclient.handler.impl;
 
-import com.crashvibe.fgateclient.handler.RequestHandler;
+import com.crashvibe.fgateclient.handler.Execution;
+import com.crashvibe.fgateclient.handler.ExecutionPolicy;
+import com.crashvibe.fgateclient.handler.Param;
+import com.crashvibe.fgateclient.handler.TypedRequestHandler;
+import com.crashvibe.fgateclient.service.OnlinePlayerIndex.PlayerHandle;
 import com.crashvibe.fgateclient.service.PlayerManager;
+import com.crashvibe.fgateclient.service.PlayerManager.KickOutcome;
 import com.crashvibe.fgateclient.service.WebSocketManager;
-import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletionStage;
+import java.util.logging.Logger;
 
 /**
- * 踢出玩家请求处理器
+ * 踢出玩家请求处理器 - 分发到目标玩家所在的区域线程，踢出操作始终在该线程执行
  */
-public class KickPlayerHandler extends RequestHandler {
+@Execution(value = ExecutionPolicy.ENTITY, entityKeys = {"player", "uuid"})
+public class KickPlayerHandler extends TypedRequestHandler<KickPlayerHandler.Params> {
 
     private final PlayerManager playerManager;
+    private final Logger logger;
 
-    public KickPlayerHandler(WebSocketManager webSocketManager, PlayerManager playerManager) {
-        super(webSocketManager);
+    public KickPlayerHandler(WebSocketManager webSocketManager, PlayerManager playerManager, Logger logger) {
+        super(webSocketManager, Params.class);
         this.playerManager = playerManager;
+        this.logger = logger;
     }
 
     @Override
@@ -23,18 +34,35 @@ public class KickPlayerHandler extends RequestHandler {
     }
 
     @Override
-    public void handle(JsonObject request) {
-        if (!request.has("params")) {
-            return; // 通知类型请求，无需响应
+    protected CompletionStage<?> handle(@Nullable String requestId, Params params) {
+        String playerIdentifier = params.player() != null ? params.player() : params.uuid();
+        if (playerIdentifier == null) {
+            return DONE; // 通知类型请求，无需响应
+        }
+
+        PlayerHandle handle = playerManager.findHandle(playerIdentifier);
+        if (handle == null) {
+            logger.warning("Who is player '" + playerIdentifier + "'?");
+            return DONE;
         }
 
-        JsonObject params = request.getAsJsonObject("params");
-        String playerIdentifier = params.has("player") ? params.get("player").getAsString()
-                : params.has("uuid") ? params.get("uuid").getAsString() : null;
-        String reason = params.has("reason") ? params.get("reason").getAsString() : "You are kicked from this server.";
+        // 分发器找不到玩家或实体调度失败时会改在 cpu 线程执行，此时玩家可能刚刚登录，
+        // 因此不直接踢出，统一交给玩家所在的区域线程判断与执行
+        return playerManager.kickPlayerAtEntity(handle, player -> true, params.reason())
+                .thenAccept(outcome -> {
+                    if (outcome == KickOutcome.OFFLINE) {
+                        logger.warning("Who is player '" + playerIdentifier + "'?");
+                    }
+                });
+    }
 
-        if (playerIdentifier != null) {
-            playerManager.kickPlayer(playerIdentifier, reason);
+    public record Params(@Param(required = false) String player,
+                         @Param(required = false) String uuid,
+                         @Param(required = false) String reason) {
+        public Params {
+            if (reason == null) {
+                reason = "You are kicked from this server.";
+            }
         }
     }
 }
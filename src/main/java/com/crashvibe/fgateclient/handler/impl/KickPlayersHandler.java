@@ -0,0 +1,163 @@
+package com.crashvibe.fgateclient.handler.impl;
+
+import com.crashvibe.fgateclient.handler.Execution;
+import com.crashvibe.fgateclient.handler.ExecutionPolicy;
+import com.crashvibe.fgateclient.handler.Param;
+import com.crashvibe.fgateclient.handler.TypedRequestHandler;
+import com.crashvibe.fgateclient.service.OnlinePlayerIndex.PlayerHandle;
+import com.crashvibe.fgateclient.service.PlayerManager;
+import com.crashvibe.fgateclient.service.PlayerManager.KickOutcome;
+import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * 批量踢出玩家请求处理器 - 按玩家列表或选择器选出玩家，
+ * 每个玩家的踢出在其所在的区域线程执行，全部完成后返回汇总结果
+ */
+@Execution(value = ExecutionPolicy.ASYNC, maxConcurrency = 2, maxQueued = 8)
+public class KickPlayersHandler extends TypedRequestHandler<KickPlayersHandler.Params> {
+
+    private final PlayerManager playerManager;
+    private final Logger logger;
+
+    public KickPlayersHandler(WebSocketManager webSocketManager, PlayerManager playerManager, Logger logger) {
+        super(webSocketManager, Params.class);
+        this.playerManager = playerManager;
+        this.logger = logger;
+    }
+
+    @Override
+    public String getMethod() {
+        return "kick.players";
+    }
+
+    @Override
+    protected CompletionStage<?> handle(@Nullable String requestId, Params params) {
+        // 按 UUID 去重，同一玩家被多次指定时只踢出一次
+        Map<UUID, PlayerHandle> targets = new LinkedHashMap<>();
+        JsonArray notFound = new JsonArray();
+
+        if (params.players() != null) {
+            for (String identifier : params.players()) {
+                PlayerHandle handle = playerManager.findHandle(identifier);
+                if (handle != null) {
+                    targets.putIfAbsent(handle.uuid(), handle);
+                } else {
+                    notFound.add(identifier);
+                }
+            }
+        } else {
+            for (PlayerHandle handle : playerManager.getPlayerIndex().getPlayers()) {
+                targets.putIfAbsent(handle.uuid(), handle);
+            }
+        }
+
+        // 权限与所在世界属于实体状态，在玩家所在的区域线程内判断
+        Predicate<Player> filter = params.filter();
+        List<PlayerHandle> players = new ArrayList<>(targets.values());
+        List<CompletableFuture<KickOutcome>> outcomes = new ArrayList<>(players.size());
+        for (PlayerHandle player : players) {
+            outcomes.add(playerManager.kickPlayerAtEntity(player, filter, params.reason())
+                    .exceptionally(e -> {
+                        logger.warning("Failed to kick " + player.name() + ": " + e.getMessage());
+                        return null;
+                    }));
+        }
+
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture[0])).thenRun(() -> {
+            JsonArray kicked = new JsonArray();
+            JsonArray offline = new JsonArray();
+            JsonArray failed = new JsonArray();
+            int skipped = 0;
+
+            for (int i = 0; i < players.size(); i++) {
+                String name = players.get(i).name();
+                KickOutcome outcome = outcomes.get(i).join();
+                if (outcome == null) {
+                    failed.add(name);
+                } else {
+                    switch (outcome) {
+                        case KICKED -> kicked.add(name);
+                        case OFFLINE -> offline.add(name);
+                        case SKIPPED -> skipped++;
+                    }
+                }
+            }
+
+            logger.info("kick.players kicked " + kicked.size() + " of " + players.size() + " players");
+            if (requestId == null) {
+                return; // 通知类型请求，无需响应
+            }
+
+            JsonObject result = new JsonObject();
+            result.addProperty("success", failed.isEmpty());
+            result.addProperty("count", kicked.size());
+            result.add("kicked", kicked);
+            result.add("offline", offline);
+            result.add("notFound", notFound);
+            result.add("failed", failed);
+            result.addProperty("skipped", skipped);
+            sendSuccessResponse(requestId, result);
+        });
+    }
+
+    /**
+     * @param players  玩家名或 UUID 列表，与 selector 二选一
+     * @param selector all、permission 或 world
+     * @param value    selector 为 permission 时为权限节点，为 world 时为世界名
+     */
+    public record Params(@Param(required = false) List<String> players,
+                         @Param(required = false) String selector,
+                         @Param(required = false) String value,
+                         @Param(required = false) String reason) {
+        public Params {
+            if (reason == null) {
+                reason = "You are kicked from this server.";
+            }
+            if (players == null && selector == null) {
+                throw new IllegalArgumentException("Either 'players' or 'selector' is required");
+            }
+            if (players != null && selector != null) {
+                throw new IllegalArgumentException("'players' and 'selector' cannot be used together");
+            }
+            if (selector != null) {
+                selector = selector.toLowerCase(Locale.ROOT);
+                switch (selector) {
+                    case "all" -> {
+                    }
+                    case "permission", "world" -> {
+                        if (value == null || value.isEmpty()) {
+                            throw new IllegalArgumentException("Argument 'value' is required for selector '" + selector + "'");
+                        }
+                    }
+                    default -> throw new IllegalArgumentException("Unknown selector '" + selector + "'");
+                }
+            }
+        }
+
+        Predicate<Player> filter() {
+            if (selector == null) {
+                return player -> true;
+            }
+            return switch (selector) {
+                case "permission" -> player -> player.hasPermission(value);
+                case "world" -> player -> player.getWorld().getName().equals(value);
+                default -> player -> true;
+            };
+        }
+    }
+}
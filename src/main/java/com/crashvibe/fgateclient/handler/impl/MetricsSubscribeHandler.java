@@ -0,0 +1,73 @@
+package com.crashvibe.fgateclient.handler.impl;
+
+import com.crashvibe.fgateclient.handler.Execution;
+import com.crashvibe.fgateclient.handler.ExecutionPolicy;
+import com.crashvibe.fgateclient.handler.Param;
+import com.crashvibe.fgateclient.handler.TypedRequestHandler;
+import com.crashvibe.fgateclient.service.MetricsStreamer;
+import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 指标订阅请求处理器 - 返回订阅 id，之后按间隔推送 metrics.update 通知
+ */
+@Execution(ExecutionPolicy.INLINE)
+public class MetricsSubscribeHandler extends TypedRequestHandler<MetricsSubscribeHandler.Params> {
+
+    private final MetricsStreamer metricsStreamer;
+
+    public MetricsSubscribeHandler(WebSocketManager webSocketManager, MetricsStreamer metricsStreamer) {
+        super(webSocketManager, Params.class);
+        this.metricsStreamer = metricsStreamer;
+    }
+
+    @Override
+    public String getMethod() {
+        return "metrics.subscribe";
+    }
+
+    @Override
+    protected CompletionStage<?> handle(@Nullable String requestId, Params params) {
+        if (requestId == null) {
+            return DONE; // 订阅需要返回 id，忽略通知类型请求
+        }
+
+        MetricsStreamer.Subscription subscription;
+        try {
+            subscription = metricsStreamer.subscribe(params.metrics(), params.intervalMillis());
+        } catch (IllegalStateException e) {
+            sendErrorResponse(requestId, e.getMessage());
+            return DONE;
+        }
+
+        JsonArray metrics = new JsonArray();
+        subscription.resolveKeys().forEach(metrics::add);
+
+        JsonObject result = new JsonObject();
+        result.addProperty("subscription", subscription.getId());
+        result.addProperty("interval_ms", subscription.getIntervalMillis());
+        result.add("metrics", metrics);
+        sendSuccessResponse(requestId, result);
+        // 响应发出后才开始推送，主机端收到首个 metrics.update 时已知道订阅 id
+        metricsStreamer.start(subscription);
+        return DONE;
+    }
+
+    /**
+     * @param metrics        指标名或前缀，缺省时订阅全部指标
+     * @param intervalMillis 推送间隔（毫秒），缺省为 1000
+     */
+    public record Params(@Param(required = false) List<String> metrics,
+                         @Param(value = "interval_ms", required = false) long intervalMillis) {
+        public Params {
+            if (intervalMillis <= 0) {
+                intervalMillis = 1000;
+            }
+        }
+    }
+}
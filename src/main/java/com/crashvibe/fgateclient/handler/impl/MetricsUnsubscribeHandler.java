@@ -0,0 +1,46 @@
+package com.crashvibe.fgateclient.handler.impl;
+
+import com.crashvibe.fgateclient.handler.Execution;
+import com.crashvibe.fgateclient.handler.ExecutionPolicy;
+import com.crashvibe.fgateclient.handler.TypedRequestHandler;
+import com.crashvibe.fgateclient.service.MetricsStreamer;
+import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.google.gson.JsonObject;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * 取消指标订阅请求处理器
+ */
+@Execution(ExecutionPolicy.INLINE)
+public class MetricsUnsubscribeHandler extends TypedRequestHandler<MetricsUnsubscribeHandler.Params> {
+
+    private final MetricsStreamer metricsStreamer;
+
+    public MetricsUnsubscribeHandler(WebSocketManager webSocketManager, MetricsStreamer metricsStreamer) {
+        super(webSocketManager, Params.class);
+        this.metricsStreamer = metricsStreamer;
+    }
+
+    @Override
+    public String getMethod() {
+        return "metrics.unsubscribe";
+    }
+
+    @Override
+    protected CompletionStage<?> handle(@Nullable String requestId, Params params) {
+        boolean removed = metricsStreamer.unsubscribe(params.subscription());
+        if (requestId == null) {
+            return DONE; // 通知类型请求，无需响应
+        }
+
+        JsonObject result = new JsonObject();
+        result.addProperty("success", removed);
+        sendSuccessResponse(requestId, result);
+        return DONE;
+    }
+
+    public record Params(String subscription) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.crashvibe.fgateclient.handler.impl;
+
+import com.crashvibe.fgateclient.handler.Execution;
+import com.crashvibe.fgateclient.handler.ExecutionPolicy;
+import com.crashvibe.fgateclient.handler.TypedRequestHandler;
+import com.crashvibe.fgateclient.service.OnlinePlayerIndex.PlayerHandle;
+import com.crashvibe.fgateclient.service.PlayerManager;
+import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.tcoded.folialib.FoliaLib;
+import me.clip.placeholderapi.PlaceholderAPI;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.logging.Logger;
+
+/**
+ * 批量解析 PlaceholderAPI 变量请求处理器 - 一次请求解析 玩家 × 变量 的全部组合
+ * 同一区域内的玩家在同一个区域线程任务中解析：每个任务先解析自己的玩家，
+ * 再顺带解析其余仍未处理且属于当前区域的玩家；非 Folia 服务器在主线程一次解析完
+ */
+@Execution(value = ExecutionPolicy.ASYNC, maxConcurrency = 2, maxQueued = 8)
+public class PapiResolveHandler extends TypedRequestHandler<PapiResolveHandler.Params> {
+
+    private static final int MAX_PLAYERS = 500;
+    private static final int MAX_PLACEHOLDERS = 64;
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final PlayerManager playerManager;
+    private final FoliaLib foliaLib;
+    private final Logger logger;
+
+    public PapiResolveHandler(WebSocketManager webSocketManager, PlayerManager playerManager, FoliaLib foliaLib,
+                              Logger logger) {
+        super(webSocketManager, Params.class);
+        this.playerManager = playerManager;
+        this.foliaLib = foliaLib;
+        this.logger = logger;
+    }
+
+    @Override
+    public String getMethod() {
+        return "papi.resolve";
+    }
+
+    @Override
+    protected CompletionStage<?> handle(@Nullable String requestId, Params params) {
+        Map<UUID, PlayerHandle> targets = new LinkedHashMap<>();
+        JsonArray notFound = new JsonArray();
+        for (String identifier : params.players()) {
+            PlayerHandle handle = playerManager.findHandle(identifier);
+            if (handle != null) {
+                targets.putIfAbsent(handle.uuid(), handle);
+            } else {
+                notFound.add(identifier);
+            }
+        }
+
+        PlayerHandle[] players = targets.values().toArray(new PlayerHandle[0]);
+        List<String> placeholders = params.placeholders();
+        String[][] values = new String[players.length][];
+        AtomicIntegerArray claimed = new AtomicIntegerArray(players.length);
+
+        List<CompletableFuture<?>> tasks = new ArrayList<>();
+        if (!foliaLib.isFolia()) {
+            tasks.add(foliaLib.getScheduler().runNextTick(task -> resolveRegion(0, players, placeholders, values, claimed)));
+        } else {
+            for (int i = 0; i < players.length; i++) {
+                Player player = players[i].resolve();
+                if (player == null) {
+                    continue; // 已离线，列入 offline
+                }
+                int first = i;
+                tasks.add(foliaLib.getScheduler().runAtEntity(player,
+                        task -> resolveRegion(first, players, placeholders, values, claimed)));
+            }
+        }
+
+        return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+                .orTimeout(TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .handle((ignored, throwable) -> {
+                    if (requestId == null) {
+                        return null; // 通知类型请求，无需响应
+                    }
+                    if (throwable != null) {
+                        logger.warning("papi.resolve failed: " + throwable.getMessage());
+                        sendErrorResponse(requestId, "Failed to resolve placeholders", throwable);
+                        return null;
+                    }
+                    sendSuccessResponse(requestId, toResult(players, placeholders, values, notFound));
+                    return null;
+                });
+    }
+
+    /**
+     * 在区域线程内执行：解析 first 以及其后所有属于当前区域且尚未被其他任务处理的玩家
+     */
+    private static void resolveRegion(int first, PlayerHandle[] players, List<String> placeholders,
+                                      String[][] values, AtomicIntegerArray claimed) {
+        for (int i = first; i < players.length; i++) {
+            if (claimed.get(i) != 0) {
+                continue;
+            }
+            Player player = players[i].resolve();
+            if (player == null) {
+                continue;
+            }
+            boolean owned = i == first || Bukkit.isOwnedByCurrentRegion(player);
+            if (owned && player.isOnline() && claimed.compareAndSet(i, 0, 1)) {
+                String[] row = new String[placeholders.size()];
+                for (int j = 0; j < row.length; j++) {
+                    row[j] = PlaceholderAPI.setPlaceholders(player, placeholders.get(j));
+                }
+                values[i] = row;
+            }
+        }
+    }
+
+    /**
+     * players 与 values 按行对应，values[i][j] 为 players[i] 的 placeholders[j]；
+     * 解析前已离线的玩家不在矩阵中，列入 offline
+     */
+    private static JsonObject toResult(PlayerHandle[] players, List<String> placeholders, String[][] values,
+                                       JsonArray notFound) {
+        JsonArray names = new JsonArray();
+        JsonArray rows = new JsonArray();
+        JsonArray offline = new JsonArray();
+        for (int i = 0; i < players.length; i++) {
+            if (values[i] == null) {
+                offline.add(players[i].name());
+                continue;
+            }
+            names.add(players[i].name());
+            JsonArray row = new JsonArray(values[i].length);
+            for (String value : values[i]) {
+                row.add(value);
+            }
+            rows.add(row);
+        }
+
+        JsonArray placeholderArray = new JsonArray(placeholders.size());
+        placeholders.forEach(placeholderArray::add);
+
+        JsonObject result = new JsonObject();
+        result.add("players", names);
+        result.add("placeholders", placeholderArray);
+        result.add("values", rows);
+        result.add("offline", offline);
+        result.add("notFound", notFound);
+        return result;
+    }
+
+    /**
+     * @param players      玩家名或 UUID
+     * @param placeholders 变量，可以省略两侧的 %
+     */
+    public record Params(List<String> players, List<String> placeholders) {
+        public Params {
+            if (players.isEmpty() || players.size() > MAX_PLAYERS) {
+                throw new IllegalArgumentException("Argument 'players' must contain 1-" + MAX_PLAYERS + " entries");
+            }
+            if (placeholders.isEmpty() || placeholders.size() > MAX_PLACEHOLDERS) {
+                throw new IllegalArgumentException(
+                        "Argument 'placeholders' must contain 1-" + MAX_PLACEHOLDERS + " entries");
+            }
+            List<String> normalized = new ArrayList<>(placeholders.size());
+            for (String placeholder : placeholders) {
+                normalized.add(placeholder.startsWith("%") ? placeholder : "%" + placeholder + "%");
+            }
+            placeholders = List.copyOf(normalized);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.crashvibe.fgateclient.handler.impl;
+
+import com.crashvibe.fgateclient.handler.Execution;
+import com.crashvibe.fgateclient.handler.ExecutionPolicy;
+import com.crashvibe.fgateclient.handler.RequestHandler;
+import com.crashvibe.fgateclient.service.PresenceTracker;
+import com.crashvibe.fgateclient.service.WebSocketManager;
+import com.google.gson.JsonObject;
+
+/**
+ * 在线状态快照请求处理器 - 返回最近一次采样的完整快照及其 seq，
+ * 主机端之后只需应用 seq 更大的 presence.delta 通知
+ */
+@Execution(ExecutionPolicy.INLINE)
+public class PresenceSnapshotHandler extends RequestHandler {
+
+    private final PresenceTracker presenceTracker;
+
+    public PresenceSnapshotHandler(WebSocketManager webSocketManager, PresenceTracker presenceTracker) {
+        super(webSocketManager);
+        this.presenceTracker = presenceTracker;
+    }
+
+    @Override
+    public String getMethod() {
+        return "presence.snapshot";
+    }
+
+    @Override
+    public void handle(JsonObject request) {
+        String requestId = getRequestId(request);
+        if (requestId == null) {
+            return; // 通知类型请求，无需响应
+        }
+
+        // 快照不可变，直接序列化，不触发采样
+        sendSuccessResponse(requestId, presenceTracker.getSnapshot().toJson());
+    }
+}
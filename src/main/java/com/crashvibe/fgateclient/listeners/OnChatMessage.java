@@ -49,7 +49,7 @@ public class OnChatMessage implements Listener {
             plugin.getLogger().severe("Failed to send chat notification: " + ex.getMessage());
         }
 
-        if (serviceManager.getConfigManager().getConfig().getBoolean("debug.enable")) {
+        if (serviceManager.getConfigManager().isDebug()) {
             plugin.getLogger().info("Chat notification sent to host: " + playerName + " -> " + message);
         }
     }
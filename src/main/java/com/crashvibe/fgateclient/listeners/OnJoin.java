@@ -9,11 +9,11 @@ import com.crashvibe.fgateclient.utils.TextUtil;
 import com.google.gson.JsonObject;
 import net.kyori.adventure.text.Component;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerLoginEvent;
 
-import java.util.HashMap;
-import java.util.Map;
 
 public class OnJoin implements Listener {
     private final FGateClient plugin;
@@ -42,13 +42,10 @@ public class OnJoin implements Listener {
 
         if (webSocketManager == null || !webSocketManager.isConnected()) {
             if (!allowJoinWithoutWebSocket) {
-                Map<String, String> params = new HashMap<>();
-                params.put("player", playerName);
-
-                String msg = i18n.format("not_ready", params, event.getPlayer());
+                String msg = i18n.format("not_ready", event.getPlayer(), "player", playerName);
                 event.disallow(PlayerLoginEvent.Result.KICK_OTHER, Component.text(msg));
 
-                plugin.getLogger().warning(i18n.format("websocket_denied", params, event.getPlayer()));
+                plugin.getLogger().warning(i18n.format("websocket_denied", event.getPlayer(), "player", playerName));
             }
             return;
         }
@@ -82,23 +79,34 @@ public class OnJoin implements Listener {
                 String reason = result.has("reason") ? result.get("reason").getAsString()
                         : i18n.get("kick_reason", event.getPlayer());
 
-                Map<String, String> logParams = new HashMap<>();
-                logParams.put("player", playerName);
-                logParams.put("reason", reason);
 
                 event.disallow(PlayerLoginEvent.Result.KICK_OTHER, TextUtil.parseText(reason));
-                plugin.getLogger().info(i18n.format("player_kicked", logParams, event.getPlayer()));
+                plugin.getLogger().info(i18n.format("player_kicked", event.getPlayer(),
+                        "player", playerName, "reason", reason));
             }
 
         } else if (response != null && response.has("error")) {
             String errorMsg = response.get("error").toString();
-            Map<String, String> errParams = new HashMap<>();
-            errParams.put("error", errorMsg);
-
-            plugin.getLogger().warning(i18n.format("player_join_error", errParams, event.getPlayer()));
+            plugin.getLogger().warning(i18n.format("player_join_error", event.getPlayer(), "error", errorMsg));
         } else if (response == null) {
             // WebSocket 请求超时或失败
             plugin.getLogger().warning("Player join request timeout or failed for player: " + playerName);
         }
     }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        ServiceManager serviceManager = plugin.getServiceManager();
+        if (serviceManager == null) {
+            return;
+        }
+
+        // 最先加入索引，其他监听器在加入事件中即可查到该玩家
+        serviceManager.getPlayerManager().getPlayerIndex().add(event.getPlayer());
+        serviceManager.getI18n().updatePlayerLocale(event.getPlayer());
+        WebSocketManager webSocketManager = serviceManager.getWebSocketManager();
+        if (webSocketManager != null && webSocketManager.isConnected()) {
+            serviceManager.getBindStatusCache().prefetch(event.getPlayer().getName(), event.getPlayer().getUniqueId());
+        }
+    }
 }
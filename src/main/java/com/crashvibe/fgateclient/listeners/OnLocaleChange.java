@@ -0,0 +1,29 @@
+package com.crashvibe.fgateclient.listeners;
+
+import com.crashvibe.fgateclient.FGateClient;
+import com.crashvibe.fgateclient.ServiceManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerLocaleChangeEvent;
+
+/**
+ * 玩家语言变化监听器 - 更新玩家语言缓存
+ */
+public class OnLocaleChange implements Listener {
+    private final FGateClient plugin;
+
+    public OnLocaleChange(FGateClient plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLocaleChange(PlayerLocaleChangeEvent event) {
+        ServiceManager serviceManager = plugin.getServiceManager();
+        if (serviceManager == null) {
+            return;
+        }
+
+        serviceManager.getI18n().updatePlayerLocale(event.getPlayer().getUniqueId(), event.locale());
+    }
+}
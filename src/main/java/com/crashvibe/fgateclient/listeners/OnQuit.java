@@ -0,0 +1,33 @@
+package com.crashvibe.fgateclient.listeners;
+
+import com.crashvibe.fgateclient.FGateClient;
+import com.crashvibe.fgateclient.ServiceManager;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+/**
+ * 玩家退出监听器 - 维护在线玩家索引，清除玩家的语言与绑定状态缓存
+ */
+public class OnQuit implements Listener {
+    private final FGateClient plugin;
+
+    public OnQuit(FGateClient plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        ServiceManager serviceManager = plugin.getServiceManager();
+        if (serviceManager == null) {
+            return;
+        }
+
+        // 最后移出索引，其他监听器在退出事件中仍可查到该玩家
+        serviceManager.getPlayerManager().getPlayerIndex().remove(event.getPlayer());
+        serviceManager.getI18n().removePlayer(event.getPlayer().getUniqueId());
+        serviceManager.getBindStatusCache().invalidate(event.getPlayer().getUniqueId());
+        serviceManager.getHostDataCache().remove(event.getPlayer().getUniqueId());
+    }
+}
@@ -0,0 +1,84 @@
+package com.crashvibe.fgateclient.papi;
+
+import com.crashvibe.fgateclient.api.host.PlayerService;
+import com.crashvibe.fgateclient.service.BindStatusCache;
+import com.crashvibe.fgateclient.service.HostDataCache;
+import me.clip.placeholderapi.PlaceholderAPIPlugin;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.OfflinePlayer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+
+/**
+ * PlaceholderAPI 扩展 - %fgate_bound%、%fgate_account%、%fgate_group%
+ * 只读取本地缓存，数据尚未获取时返回空字符串
+ */
+public class FGateExpansion extends PlaceholderExpansion {
+
+    private final String version;
+    private final BindStatusCache bindStatusCache;
+    private final HostDataCache hostDataCache;
+
+    public FGateExpansion(String version, BindStatusCache bindStatusCache, HostDataCache hostDataCache) {
+        this.version = version;
+        this.bindStatusCache = bindStatusCache;
+        this.hostDataCache = hostDataCache;
+    }
+
+    @Override
+    public @NotNull String getIdentifier() {
+        return "fgate";
+    }
+
+    @Override
+    public @NotNull String getAuthor() {
+        return "CrashVibe";
+    }
+
+    @Override
+    public @NotNull String getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean persist() {
+        // PlaceholderAPI 重载时保留，插件禁用时由插件注销
+        return true;
+    }
+
+    @Override
+    public @Nullable String onRequest(OfflinePlayer player, @NotNull String params) {
+        if (player == null || !player.isOnline()) {
+            return "";
+        }
+
+        String placeholder = params.toLowerCase(Locale.ROOT);
+        switch (placeholder) {
+            case "bound" -> {
+                // 绑定状态以主机推送维护的缓存为准
+                Boolean bound = bindStatusCache.getIfPresent(player.getUniqueId());
+                if (bound == null) {
+                    PlayerService.PlayerData data = hostDataCache.get(player.getUniqueId(), placeholder);
+                    if (data == null) {
+                        return "";
+                    }
+                    bound = data.isBind();
+                }
+                return bound ? PlaceholderAPIPlugin.booleanTrue() : PlaceholderAPIPlugin.booleanFalse();
+            }
+            case "account" -> {
+                PlayerService.PlayerData data = hostDataCache.get(player.getUniqueId(), placeholder);
+                return data != null && data.account() != null ? data.account() : "";
+            }
+            case "group" -> {
+                PlayerService.PlayerData data = hostDataCache.get(player.getUniqueId(), placeholder);
+                return data != null && data.group() != null ? data.group() : "";
+            }
+            default -> {
+                return null;
+            }
+        }
+    }
+}
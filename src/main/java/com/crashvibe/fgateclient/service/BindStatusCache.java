@@ -0,0 +1,145 @@
+package com.crashvibe.fgateclient.service;
+
+import com.crashvibe.fgateclient.api.host.PlayerService;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 玩家绑定状态缓存 - 玩家加入时向主机查询一次，之后由主机的 player.bind.changed 通知更新
+ * 条目数超出容量时淘汰最早写入的条目；玩家退出或连接断开时清除（断开期间可能漏收通知）
+ */
+public class BindStatusCache {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final Logger logger;
+    private final PlayerService playerService;
+    private final LinkedHashMap<UUID, Boolean> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // 进行中的查询，同一玩家的并发读取共用一次查询；查询期间该玩家的状态被更新或失效时移除，
+    // 查询结果不再写入缓存，避免旧结果覆盖主机推送的新状态，其他玩家的查询不受影响
+    private final Map<UUID, CompletableFuture<Boolean>> pendingQueries = new HashMap<>();
+
+    public BindStatusCache(Logger logger, PlayerService playerService, WebSocketManager webSocketManager,
+                           int capacity) {
+        this.logger = logger;
+        this.playerService = playerService;
+        int maxEntries = Math.max(1, capacity);
+        this.entries = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        webSocketManager.addCloseListener(this::clear);
+    }
+
+    /**
+     * 只读取缓存，未缓存时返回 null
+     */
+    public synchronized Boolean getIfPresent(UUID uuid) {
+        return entries.get(uuid);
+    }
+
+    /**
+     * 获取绑定状态，未缓存时向主机查询并缓存结果；同一玩家已有查询进行中时等待该查询
+     */
+    public CompletableFuture<Boolean> get(String playerName, UUID uuid) {
+        CompletableFuture<Boolean> own;
+        synchronized (this) {
+            Boolean cached = entries.get(uuid);
+            if (cached != null) {
+                hits.increment();
+                return CompletableFuture.completedFuture(cached);
+            }
+            misses.increment();
+
+            CompletableFuture<Boolean> inFlight = pendingQueries.get(uuid);
+            if (inFlight != null) {
+                return inFlight;
+            }
+            own = new CompletableFuture<>();
+            pendingQueries.put(uuid, own);
+        }
+
+        try {
+            playerService.bindQuery(playerName, uuid.toString()).whenComplete((result, throwable) -> {
+                if (throwable != null || result == null) {
+                    completeQuery(uuid, own, null);
+                    own.completeExceptionally(throwable != null ? throwable
+                            : new IllegalStateException("Empty bind query result for " + playerName));
+                    return;
+                }
+                completeQuery(uuid, own, result.isBind());
+                own.complete(result.isBind());
+            });
+        } catch (Exception e) {
+            completeQuery(uuid, own, null);
+            own.completeExceptionally(e);
+        }
+        return own;
+    }
+
+    /**
+     * 预先查询绑定状态，在玩家加入时调用
+     */
+    public void prefetch(String playerName, UUID uuid) {
+        get(playerName, uuid).exceptionally(throwable -> {
+            logger.log(Level.FINE, "Failed to prefetch bind status for " + playerName, throwable);
+            return null;
+        });
+    }
+
+    /**
+     * 写入主机确认的绑定状态
+     */
+    public synchronized void put(UUID uuid, boolean bound) {
+        pendingQueries.remove(uuid);
+        entries.remove(uuid);
+        entries.put(uuid, bound);
+    }
+
+    /**
+     * 移除缓存，下次读取时重新查询；玩家退出时调用
+     */
+    public synchronized void invalidate(UUID uuid) {
+        pendingQueries.remove(uuid);
+        entries.remove(uuid);
+    }
+
+    public synchronized void clear() {
+        pendingQueries.clear();
+        entries.clear();
+    }
+
+    /**
+     * 查询结束，只有该玩家的查询期间未发生变化时才写入结果
+     *
+     * @param bound 查询失败或结果为空时为 null，只移除登记
+     */
+    private synchronized void completeQuery(UUID uuid, CompletableFuture<Boolean> query, Boolean bound) {
+        if (pendingQueries.remove(uuid, query) && bound != null) {
+            entries.put(uuid, bound);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,176 @@
+package com.crashvibe.fgateclient.service;
+
+import com.crashvibe.fgateclient.ConfigManager;
+import com.crashvibe.fgateclient.ConfigSnapshot;
+import com.crashvibe.fgateclient.api.host.PlayerService;
+import com.tcoded.folialib.FoliaLib;
+import com.tcoded.folialib.wrapper.task.WrappedTask;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 主机端玩家数据缓存 - 供 PlaceholderAPI 变量读取，读取只访问本地缓存，从不等待主机
+ * 未缓存或已过期的玩家加入待刷新队列，由定时任务按批次向主机请求（player.data.batch）；
+ * 刷新完成前继续返回旧值，超过最长过期时间后不再返回
+ */
+public class HostDataCache {
+
+    private final Logger logger;
+    private final FoliaLib foliaLib;
+    private final ConfigManager configManager;
+    private final OnlinePlayerIndex playerIndex;
+    private final WebSocketManager webSocketManager;
+    private final PlayerService playerService;
+    private final Map<UUID, Entry> entries = new ConcurrentHashMap<>();
+    // 等待刷新的玩家
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    // 正在向主机请求的玩家
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    private long intervalTicks;
+    private WrappedTask task;
+
+    public HostDataCache(Logger logger, FoliaLib foliaLib, ConfigManager configManager, OnlinePlayerIndex playerIndex,
+                         WebSocketManager webSocketManager, PlayerService playerService) {
+        this.logger = logger;
+        this.foliaLib = foliaLib;
+        this.configManager = configManager;
+        this.playerIndex = playerIndex;
+        this.webSocketManager = webSocketManager;
+        this.playerService = playerService;
+        this.intervalTicks = configManager.getSnapshot().placeholders().refreshIntervalTicks();
+    }
+
+    public synchronized void start() {
+        if (task == null) {
+            task = foliaLib.getScheduler().runTimerAsync(this::flush, intervalTicks, intervalTicks);
+        }
+    }
+
+    /**
+     * 修改刷新间隔，运行中时立即按新间隔重新调度
+     */
+    public synchronized void setIntervalTicks(long intervalTicks) {
+        this.intervalTicks = Math.max(1, intervalTicks);
+        if (task != null) {
+            stop();
+            start();
+        }
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * 读取玩家数据，不会阻塞
+     *
+     * @param placeholder 变量名，用于确定数据有效期
+     * @return 尚未获取或已超过最长过期时间时返回 null
+     */
+    public PlayerService.PlayerData get(UUID uuid, String placeholder) {
+        Entry entry = entries.get(uuid);
+        if (entry == null) {
+            requestRefresh(uuid);
+            return null;
+        }
+
+        ConfigSnapshot.Placeholders config = configManager.getSnapshot().placeholders();
+        long age = System.nanoTime() - entry.fetchedAt();
+        if (age > TimeUnit.SECONDS.toNanos(config.ttlSeconds(placeholder))) {
+            requestRefresh(uuid);
+        }
+        if (age > TimeUnit.SECONDS.toNanos(config.maxStaleSeconds())) {
+            return null;
+        }
+        return entry.data();
+    }
+
+    /**
+     * 标记玩家数据需要刷新，刷新完成前继续返回旧值
+     */
+    public void invalidate(UUID uuid) {
+        if (entries.containsKey(uuid)) {
+            requestRefresh(uuid);
+        }
+    }
+
+    /**
+     * 玩家退出时调用
+     */
+    public void remove(UUID uuid) {
+        entries.remove(uuid);
+        pending.remove(uuid);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private void requestRefresh(UUID uuid) {
+        if (!inFlight.contains(uuid)) {
+            pending.add(uuid);
+        }
+    }
+
+    private void flush() {
+        if (pending.isEmpty() || !webSocketManager.isConnected()) {
+            return;
+        }
+
+        int batchSize = configManager.getSnapshot().placeholders().batchSize();
+        List<UUID> batch = new ArrayList<>();
+        Iterator<UUID> iterator = pending.iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            UUID uuid = iterator.next();
+            iterator.remove();
+            if (playerIndex.find(uuid) != null && inFlight.add(uuid)) {
+                batch.add(uuid);
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<String> ids = new ArrayList<>(batch.size());
+        batch.forEach(uuid -> ids.add(uuid.toString()));
+        playerService.dataBatch(ids).whenComplete((result, throwable) -> {
+            try {
+                if (throwable != null) {
+                    // 保留旧值，下次读取时重新加入队列
+                    logger.log(Level.FINE, "Failed to refresh host data for " + batch.size() + " players", throwable);
+                    return;
+                }
+
+                long now = System.nanoTime();
+                Map<String, PlayerService.PlayerData> players = result.players() != null ? result.players() : Map.of();
+                for (UUID uuid : batch) {
+                    // 请求期间退出的玩家不再写入
+                    if (playerIndex.find(uuid) != null) {
+                        PlayerService.PlayerData data = players.get(uuid.toString());
+                        entries.put(uuid, new Entry(data != null ? data : PlayerService.PlayerData.NONE, now));
+                    }
+                }
+            } finally {
+                batch.forEach(inFlight::remove);
+            }
+        });
+    }
+
+    /**
+     * @param fetchedAt 获取时间（System.nanoTime）
+     */
+    private record Entry(PlayerService.PlayerData data, long fetchedAt) {
+    }
+}
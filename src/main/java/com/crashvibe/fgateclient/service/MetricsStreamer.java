@@ -0,0 +1,221 @@
+package com.crashvibe.fgateclient.service;
+
+import com.crashvibe.fgateclient.ExecutionManager;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 指标推送 - 主机端按名称订阅运行状态指标，按指定间隔推送 metrics.update 通知
+ * 首次推送（或指标集合变化时）发送完整的 keys 与 values，之后只发送变化的 [下标, 数值] 对
+ * 订阅只在当前连接内有效，连接关闭时全部清除
+ */
+public class MetricsStreamer {
+
+    // 单个连接允许的最大订阅数
+    private static final int MAX_SUBSCRIPTIONS = 16;
+    private static final long MIN_INTERVAL_MILLIS = 250;
+
+    private final Logger logger;
+    private final ExecutionManager executors;
+    private final TelemetrySampler telemetrySampler;
+    private final WebSocketManager webSocketManager;
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    public MetricsStreamer(Logger logger, ExecutionManager executors, TelemetrySampler telemetrySampler,
+                           WebSocketManager webSocketManager) {
+        this.logger = logger;
+        this.executors = executors;
+        this.telemetrySampler = telemetrySampler;
+        this.webSocketManager = webSocketManager;
+        webSocketManager.addCloseListener(this::clear);
+    }
+
+    /**
+     * 创建订阅，创建后不推送，调用方发出包含订阅 id 的响应后再调用 {@link #start(Subscription)}
+     *
+     * @param patterns       指标名或前缀（如 mspt 匹配 mspt.p95），为空时订阅全部指标
+     * @param intervalMillis 推送间隔，不小于 250 毫秒
+     * @throws IllegalStateException 超出订阅数量上限
+     */
+    public synchronized Subscription subscribe(List<String> patterns, long intervalMillis) {
+        if (subscriptions.size() >= MAX_SUBSCRIPTIONS) {
+            throw new IllegalStateException("Too many metrics subscriptions (max " + MAX_SUBSCRIPTIONS + ")");
+        }
+
+        long interval = Math.max(MIN_INTERVAL_MILLIS, intervalMillis);
+        Subscription subscription = new Subscription("m" + nextId.incrementAndGet(),
+                patterns == null ? List.of() : List.copyOf(patterns), interval);
+        subscriptions.put(subscription.id, subscription);
+        return subscription;
+    }
+
+    /**
+     * 开始推送，首次推送立即进行；订阅在此之前已被取消或清除时不启动
+     */
+    public synchronized void start(Subscription subscription) {
+        if (subscriptions.get(subscription.id) != subscription || subscription.task != null) {
+            return;
+        }
+        subscription.task = executors.scheduleAtFixedRate(executors.cpu(), subscription::push, 0,
+                subscription.intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 取消订阅
+     *
+     * @return 订阅是否存在
+     */
+    public synchronized boolean unsubscribe(String id) {
+        Subscription subscription = subscriptions.remove(id);
+        if (subscription == null) {
+            return false;
+        }
+        subscription.cancel();
+        return true;
+    }
+
+    /**
+     * 清除全部订阅
+     */
+    public synchronized void clear() {
+        int count = subscriptions.size();
+        subscriptions.values().removeIf(subscription -> {
+            subscription.cancel();
+            return true;
+        });
+        if (count > 0) {
+            logger.info("Cleared " + count + " metrics subscriptions");
+        }
+    }
+
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    public final class Subscription {
+        private final String id;
+        private final List<String> patterns;
+        private final long intervalMillis;
+        private volatile ScheduledFuture<?> task;
+        // 以下状态只在推送任务内访问
+        private List<String> keys = List.of();
+        private double[] values = new double[0];
+        private Map<String, Double> lastMetrics;
+        private long seq;
+
+        private Subscription(String id, List<String> patterns, long intervalMillis) {
+            this.id = id;
+            this.patterns = patterns;
+            this.intervalMillis = intervalMillis;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public long getIntervalMillis() {
+            return intervalMillis;
+        }
+
+        /**
+         * 当前匹配到的指标名
+         */
+        public List<String> resolveKeys() {
+            return select(telemetrySampler.getMetrics());
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> current = task;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+
+        private synchronized void push() {
+            try {
+                if (!webSocketManager.isConnected()) {
+                    return;
+                }
+
+                // 每次采样生成新的指标表，引用相同说明采样尚未更新
+                Map<String, Double> metrics = telemetrySampler.getMetrics();
+                if (metrics == lastMetrics) {
+                    return;
+                }
+                lastMetrics = metrics;
+
+                List<String> selected = select(metrics);
+                JsonObject params = new JsonObject();
+                params.addProperty("sub", id);
+
+                if (!selected.equals(keys)) {
+                    // 指标集合变化，发送完整数据
+                    keys = selected;
+                    values = new double[selected.size()];
+                    JsonArray keyArray = new JsonArray();
+                    JsonArray valueArray = new JsonArray();
+                    for (int i = 0; i < selected.size(); i++) {
+                        values[i] = metrics.get(selected.get(i));
+                        keyArray.add(selected.get(i));
+                        valueArray.add(values[i]);
+                    }
+                    params.add("keys", keyArray);
+                    params.add("values", valueArray);
+                } else {
+                    JsonArray delta = new JsonArray();
+                    for (int i = 0; i < keys.size(); i++) {
+                        double value = metrics.get(keys.get(i));
+                        if (Double.compare(value, values[i]) != 0) {
+                            values[i] = value;
+                            delta.add(i);
+                            delta.add(value);
+                        }
+                    }
+                    if (delta.isEmpty()) {
+                        return;
+                    }
+                    params.add("d", delta);
+                }
+
+                params.addProperty("seq", ++seq);
+                webSocketManager.sendNotification("metrics.update", params);
+            } catch (Exception e) {
+                logger.log(Level.WARNING, "Failed to push metrics for subscription " + id, e);
+            }
+        }
+
+        private List<String> select(Map<String, Double> metrics) {
+            List<String> selected = new ArrayList<>();
+            for (String key : metrics.keySet()) {
+                if (matches(key)) {
+                    selected.add(key);
+                }
+            }
+            return selected;
+        }
+
+        private boolean matches(String key) {
+            if (patterns.isEmpty()) {
+                return true;
+            }
+            for (String pattern : patterns) {
+                if (pattern.equals("*") || key.equals(pattern)
+                        || (key.startsWith(pattern) && key.charAt(pattern.length()) == '.')) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.crashvibe.fgateclient.service;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 在线玩家索引 - 由加入与退出事件维护，按小写玩家名或 UUID 精确查找在线玩家
+ * 读取不加锁，可在任意线程使用；不做前缀匹配，也不通过异常解析 UUID
+ * 只保存不可变的玩家句柄（UUID 与名称），不持有 Player 对象，需要时在使用处按 UUID 取得
+ */
+public class OnlinePlayerIndex {
+
+    private final Map<String, PlayerHandle> byName = new ConcurrentHashMap<>();
+    private final Map<UuidKey, PlayerHandle> byUuid = new ConcurrentHashMap<>();
+
+    /**
+     * 以当前在线玩家初始化索引（插件在服务器运行中加载时）
+     */
+    public void seed(Collection<? extends Player> players) {
+        for (Player player : players) {
+            add(player);
+        }
+    }
+
+    public void add(Player player) {
+        PlayerHandle handle = new PlayerHandle(player.getUniqueId(), player.getName());
+        byName.put(nameKey(handle.name()), handle);
+        byUuid.put(UuidKey.of(handle.uuid()), handle);
+    }
+
+    public void remove(Player player) {
+        // 只移除 UUID 与名称都一致的条目，避免另一玩家改用该名称登录时误删
+        PlayerHandle handle = new PlayerHandle(player.getUniqueId(), player.getName());
+        byName.remove(nameKey(handle.name()), handle);
+        byUuid.remove(UuidKey.of(handle.uuid()), handle);
+    }
+
+    /**
+     * 按玩家名（忽略大小写）或 UUID 字符串查找在线玩家
+     *
+     * @return 不在线时返回 null
+     */
+    public PlayerHandle find(String identifier) {
+        if (identifier == null || identifier.isEmpty()) {
+            return null;
+        }
+
+        PlayerHandle handle = byName.get(nameKey(identifier));
+        if (handle != null) {
+            return handle;
+        }
+
+        UuidKey key = UuidKey.parse(identifier);
+        return key != null ? byUuid.get(key) : null;
+    }
+
+    public PlayerHandle find(UUID uuid) {
+        return byUuid.get(UuidKey.of(uuid));
+    }
+
+    public int size() {
+        return byUuid.size();
+    }
+
+    /**
+     * 获取在线玩家句柄的只读视图
+     */
+    public Collection<PlayerHandle> getPlayers() {
+        return Collections.unmodifiableCollection(byUuid.values());
+    }
+
+    public void clear() {
+        byName.clear();
+        byUuid.clear();
+    }
+
+    private static String nameKey(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 在线玩家句柄，创建后不再变化，可在任意线程读取与传递
+     */
+    public record PlayerHandle(UUID uuid, String name) {
+
+        /**
+         * 按 UUID 取得当前的 Player 对象，玩家已离线时返回 null
+         * 读取玩家状态仍需位于其所在的区域线程
+         */
+        public Player resolve() {
+            return Bukkit.getPlayer(uuid);
+        }
+    }
+
+    /**
+     * UUID 键，以两个 long 保存，比较与哈希不需要创建 UUID 对象
+     */
+    private record UuidKey(long most, long least) {
+
+        static UuidKey of(UUID uuid) {
+            return new UuidKey(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        }
+
+        /**
+         * 解析标准格式 8-4-4-4-12 的 UUID 字符串，格式不符时返回 null
+         */
+        static UuidKey parse(String text) {
+            if (text.length() != 36 || text.charAt(8) != '-' || text.charAt(13) != '-'
+                    || text.charAt(18) != '-' || text.charAt(23) != '-') {
+                return null;
+            }
+
+            long most = 0;
+            long least = 0;
+            int digits = 0;
+            for (int i = 0; i < 36; i++) {
+                char c = text.charAt(i);
+                if (c == '-') {
+                    continue;
+                }
+                int value = Character.digit(c, 16);
+                if (value < 0) {
+                    return null;
+                }
+                if (digits < 16) {
+                    most = (most << 4) | value;
+                } else {
+                    least = (least << 4) | value;
+                }
+                digits++;
+            }
+            return digits == 32 ? new UuidKey(most, least) : null;
+        }
+    }
+}
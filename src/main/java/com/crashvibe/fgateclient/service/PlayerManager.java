@@ -1,12 +1,14 @@
 package com.crashvibe.fgateclient.service;
 
+import com.crashvibe.fgateclient.service.OnlinePlayerIndex.PlayerHandle;
 import com.crashvibe.fgateclient.utils.TextUtil;
 import com.tcoded.folialib.FoliaLib;
+import com.tcoded.folialib.enums.EntityTaskResult;
 import net.kyori.adventure.text.Component;
-import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 
 /**
@@ -17,29 +19,69 @@ public class PlayerManager {
 
     private final Logger logger;
     private final FoliaLib foliaLib;
+    private final OnlinePlayerIndex playerIndex;
 
-    public PlayerManager(Logger logger, FoliaLib foliaLib) {
+    public PlayerManager(Logger logger, FoliaLib foliaLib, OnlinePlayerIndex playerIndex) {
         this.logger = logger;
         this.foliaLib = foliaLib;
+        this.playerIndex = playerIndex;
     }
 
-    @SuppressWarnings("deprecation")
     public void kickPlayer(String playerIdentifier, String reason) {
-        foliaLib.getScheduler().runAsync(task -> {
-            Player player = findPlayer(playerIdentifier);
+        PlayerHandle handle = findHandle(playerIdentifier);
+        if (handle == null) {
+            logger.warning("Who is player '" + playerIdentifier + "'?");
+            return;
+        }
+
+        // 直接在玩家所在的区域线程执行踢出操作
+        kickPlayerAtEntity(handle, target -> true, reason);
+    }
 
-            if (player != null && player.isOnline()) {
-                // 在主线程执行踢出操作
-                foliaLib.getScheduler().runNextTick(kickTask -> {
-                    // 使用TextUtil解析颜色代码，支持多行文本和换行时颜色重置
-                    Component reasonComponent = TextUtil.parseMultilineText(reason);
-                    player.kick(reasonComponent);
-                    logger.info("Kicked player " + player.getName() + " for: " + reason);
-                });
-            } else {
-                logger.warning("Who is player '" + playerIdentifier + "'?");
+    /**
+     * 在玩家所在的区域线程检查条件并踢出玩家，条件也在该线程内判断
+     *
+     * @param filter 踢出前的附加条件，例如权限或所在世界
+     */
+    public CompletableFuture<KickOutcome> kickPlayerAtEntity(PlayerHandle handle, Predicate<Player> filter,
+                                                             String reason) {
+        CompletableFuture<KickOutcome> outcome = new CompletableFuture<>();
+        Player player = handle.resolve();
+        if (player == null) {
+            outcome.complete(KickOutcome.OFFLINE);
+            return outcome;
+        }
+
+        foliaLib.getScheduler().runAtEntity(player, task -> {
+            try {
+                if (!player.isOnline()) {
+                    outcome.complete(KickOutcome.OFFLINE);
+                } else if (!filter.test(player)) {
+                    outcome.complete(KickOutcome.SKIPPED);
+                } else {
+                    kickPlayer(player, reason);
+                    outcome.complete(KickOutcome.KICKED);
+                }
+            } catch (Exception e) {
+                outcome.completeExceptionally(e);
+            }
+        }).thenAccept(result -> {
+            if (result != EntityTaskResult.SUCCESS) {
+                // 玩家已离线，实体调度器不再接受任务
+                outcome.complete(KickOutcome.OFFLINE);
             }
         });
+        return outcome;
+    }
+
+    /**
+     * 在当前线程直接踢出玩家，调用方需保证位于该玩家所在的区域线程
+     */
+    public void kickPlayer(Player player, String reason) {
+        // 使用TextUtil解析颜色代码，支持多行文本和换行时颜色重置
+        Component reasonComponent = TextUtil.parseMultilineText(reason);
+        player.kick(reasonComponent);
+        logger.info("Kicked player " + player.getName() + " for: " + reason);
     }
 
     public boolean isPlayerOnline(String playerIdentifier) {
@@ -47,20 +89,31 @@ public class PlayerManager {
         return player != null && player.isOnline();
     }
 
-    private Player findPlayer(String playerIdentifier) {
-        // 首先尝试按玩家名查找
-        Player player = Bukkit.getPlayer(playerIdentifier);
+    /**
+     * 按玩家名（忽略大小写）或 UUID 查找在线玩家，返回调用时的 Player 对象，不应长期持有
+     */
+    public Player findPlayer(String playerIdentifier) {
+        PlayerHandle handle = playerIndex.find(playerIdentifier);
+        return handle != null ? handle.resolve() : null;
+    }
 
-        if (player == null) {
-            // 尝试通过UUID查找
-            try {
-                UUID uuid = UUID.fromString(playerIdentifier);
-                player = Bukkit.getPlayer(uuid);
-            } catch (IllegalArgumentException ignored) {
-                // 不是有效的UUID，可能是玩家名
-            }
-        }
+    /**
+     * 按玩家名（忽略大小写）或 UUID 查找在线玩家句柄，可跨线程传递
+     */
+    public PlayerHandle findHandle(String playerIdentifier) {
+        return playerIndex.find(playerIdentifier);
+    }
+
+    public OnlinePlayerIndex getPlayerIndex() {
+        return playerIndex;
+    }
 
-        return player;
+    /**
+     * 单个玩家的踢出结果
+     */
+    public enum KickOutcome {
+        KICKED,
+        SKIPPED,
+        OFFLINE
     }
 }
@@ -0,0 +1,211 @@
+package com.crashvibe.fgateclient.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.tcoded.folialib.FoliaLib;
+import com.tcoded.folialib.wrapper.task.WrappedTask;
+import org.bukkit.entity.Player;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 在线状态同步 - 维护带版本号的在线玩家快照，定时只向主机端推送变化部分
+ * 每次推送的 seq 连续递增，主机端发现断档时通过 presence.snapshot 请求完整快照
+ * 世界、延迟与游戏模式在玩家所在的区域线程采集，异步的推送任务只读取采集结果
+ */
+public class PresenceTracker {
+
+    // 延迟变化小于该值时不推送，避免每次采样都上报抖动
+    private static final int PING_TOLERANCE_MILLIS = 20;
+
+    private final Logger logger;
+    private final FoliaLib foliaLib;
+    private final OnlinePlayerIndex playerIndex;
+    private final WebSocketManager webSocketManager;
+    private long intervalTicks;
+    private volatile Snapshot snapshot = new Snapshot(0, Map.of());
+    // 各玩家最近一次在区域线程采集的状态
+    private final Map<UUID, PlayerState> observed = new ConcurrentHashMap<>();
+    private WrappedTask task;
+
+    public PresenceTracker(Logger logger, FoliaLib foliaLib, OnlinePlayerIndex playerIndex,
+                           WebSocketManager webSocketManager, long intervalTicks) {
+        this.logger = logger;
+        this.foliaLib = foliaLib;
+        this.playerIndex = playerIndex;
+        this.webSocketManager = webSocketManager;
+        this.intervalTicks = Math.max(1, intervalTicks);
+    }
+
+    public synchronized void start() {
+        if (task == null) {
+            task = foliaLib.getScheduler().runTimerAsync(this::sample, intervalTicks, intervalTicks);
+        }
+    }
+
+    /**
+     * 修改采样间隔，运行中时立即按新间隔重新调度
+     */
+    public synchronized void setIntervalTicks(long intervalTicks) {
+        this.intervalTicks = Math.max(1, intervalTicks);
+        if (task != null) {
+            stop();
+            start();
+        }
+    }
+
+    public synchronized void stop() {
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+    }
+
+    /**
+     * 获取最近一次的完整快照
+     */
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    private void sample() {
+        try {
+            Map<UUID, PlayerState> current = new HashMap<>();
+            for (OnlinePlayerIndex.PlayerHandle handle : playerIndex.getPlayers()) {
+                Player player = handle.resolve();
+                if (player != null) {
+                    // 交给玩家所在的区域线程采集，本轮推送使用上一轮的采集结果
+                    foliaLib.getScheduler().runAtEntity(player,
+                            task -> observed.put(handle.uuid(), PlayerState.of(player)));
+                }
+                PlayerState state = observed.get(handle.uuid());
+                if (state != null) {
+                    current.put(handle.uuid(), state);
+                }
+            }
+            // 已退出玩家的采集结果不再需要
+            observed.keySet().removeIf(uuid -> playerIndex.find(uuid) == null);
+            publish(current);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to sample presence", e);
+        }
+    }
+
+    private void publish(Map<UUID, PlayerState> current) {
+        Snapshot previous = snapshot;
+        Map<UUID, PlayerState> next = new HashMap<>(current.size());
+        JsonArray joined = new JsonArray();
+        JsonArray left = new JsonArray();
+        JsonArray changed = new JsonArray();
+
+        for (PlayerState state : current.values()) {
+            PlayerState before = previous.players().get(state.uuid());
+            if (before == null) {
+                joined.add(state.toJson());
+                next.put(state.uuid(), state);
+                continue;
+            }
+
+            JsonObject fields = state.diff(before);
+            if (fields != null) {
+                changed.add(fields);
+                // 未推送的延迟变化不计入快照，保持与主机端一致
+                next.put(state.uuid(), fields.has("ping") ? state
+                        : new PlayerState(state.uuid(), state.name(), state.world(), before.ping(), state.gameMode()));
+            } else {
+                // 保留上次推送的状态，细小的延迟变化会累计到超过阈值为止
+                next.put(state.uuid(), before);
+            }
+        }
+        for (UUID uuid : previous.players().keySet()) {
+            if (!current.containsKey(uuid)) {
+                left.add(uuid.toString());
+            }
+        }
+
+        if (joined.isEmpty() && left.isEmpty() && changed.isEmpty()) {
+            return;
+        }
+
+        // 断开期间也推进版本号，主机端重连后据此发现断档并请求完整快照
+        Snapshot published = new Snapshot(previous.seq() + 1, Map.copyOf(next));
+        snapshot = published;
+
+        if (!webSocketManager.isConnected()) {
+            return;
+        }
+
+        JsonObject params = new JsonObject();
+        params.addProperty("seq", published.seq());
+        params.add("joined", joined);
+        params.add("left", left);
+        params.add("changed", changed);
+        webSocketManager.sendNotification("presence.delta", params);
+    }
+
+    /**
+     * 在线玩家快照，players 不可变
+     */
+    public record Snapshot(long seq, Map<UUID, PlayerState> players) {
+
+        public JsonObject toJson() {
+            JsonArray array = new JsonArray();
+            players.values().forEach(state -> array.add(state.toJson()));
+
+            JsonObject json = new JsonObject();
+            json.addProperty("seq", seq);
+            json.add("players", array);
+            return json;
+        }
+    }
+
+    public record PlayerState(UUID uuid, String name, String world, int ping, String gameMode) {
+
+        /**
+         * 需在玩家所在的区域线程调用
+         */
+        static PlayerState of(Player player) {
+            return new PlayerState(player.getUniqueId(), player.getName(), player.getWorld().getName(),
+                    player.getPing(), player.getGameMode().name());
+        }
+
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.addProperty("uuid", uuid.toString());
+            json.addProperty("name", name);
+            json.addProperty("world", world);
+            json.addProperty("ping", ping);
+            json.addProperty("gamemode", gameMode);
+            return json;
+        }
+
+        /**
+         * 只包含与上次推送不同的字段，没有变化时返回 null
+         */
+        JsonObject diff(PlayerState before) {
+            JsonObject json = new JsonObject();
+            if (!name.equals(before.name)) {
+                json.addProperty("name", name);
+            }
+            if (!world.equals(before.world)) {
+                json.addProperty("world", world);
+            }
+            if (Math.abs(ping - before.ping) >= PING_TOLERANCE_MILLIS) {
+                json.addProperty("ping", ping);
+            }
+            if (!gameMode.equals(before.gameMode)) {
+                json.addProperty("gamemode", gameMode);
+            }
+            if (json.isEmpty()) {
+                return null;
+            }
+            json.addProperty("uuid", uuid.toString());
+            return json;
+        }
+    }
+}
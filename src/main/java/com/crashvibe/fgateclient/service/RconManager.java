@@ -2,8 +2,9 @@ package com.crashvibe.fgateclient.service;
 
 import com.crashvibe.fgateclient.ConfigManager;
 import com.tcoded.folialib.FoliaLib;
+import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
 import org.bukkit.Bukkit;
-import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.command.CommandSender;
 
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
@@ -12,8 +13,15 @@ import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -22,11 +30,17 @@ import java.util.logging.Logger;
  */
 public class RconManager {
 
+    private static final PlainTextComponentSerializer PLAIN_TEXT = PlainTextComponentSerializer.plainText();
+
     private final Logger logger;
-    // 保留 foliaLib 以备将来可能需要使用服务器线程调度
-    @SuppressWarnings("unused")
     private final FoliaLib foliaLib;
     private final ConfigManager configManager;
+    // 外部 RCON 的网络读写与等待命令结果都会阻塞
+    private final Executor ioExecutor;
+    private volatile RconResultCache resultCache;
+    // 等待在全局线程执行的内置命令；关闭时主线程被 onDisable 占用，这些命令不会再执行
+    private final Set<CompletableFuture<?>> pendingBuiltin = ConcurrentHashMap.newKeySet();
+    private volatile boolean shuttingDown = false;
 
     // 外部 RCON 相关字段
     private Socket rconSocket;
@@ -35,19 +49,41 @@ public class RconManager {
     private boolean rconConnected = false;
     private int requestId = 1;
 
-    public RconManager(Logger logger, FoliaLib foliaLib, ConfigManager configManager) {
+    public RconManager(Logger logger, FoliaLib foliaLib, ConfigManager configManager, Executor ioExecutor) {
         this.logger = logger;
         this.foliaLib = foliaLib;
         this.configManager = configManager;
+        this.ioExecutor = ioExecutor;
+        this.resultCache = createResultCache();
 
         if (!configManager.isUseBuiltinRcon() && configManager.isRconConfigured()) {
             // 异步初始化外部 RCON，避免阻塞构造函数
-            initializeExternalRconAsync()
-                    .exceptionally(throwable -> {
-                        logger.log(Level.WARNING, "Failed to initialize external RCON asynchronously", throwable);
-                        return null;
-                    });
+            connectExternalRconAsync();
+        }
+    }
+
+    private RconResultCache createResultCache() {
+        return new RconResultCache(configManager.isRconCacheEnabled() ? configManager.getRconCacheTtls() : Map.of());
+    }
+
+    private void connectExternalRconAsync() {
+        initializeExternalRconAsync()
+                .exceptionally(throwable -> {
+                    logger.log(Level.WARNING, "Failed to initialize external RCON asynchronously", throwable);
+                    return null;
+                });
+    }
+
+    /**
+     * rcon.* 配置变化后调用：关闭当前外部连接，按新配置重建结果缓存并重新连接
+     */
+    public synchronized void reconfigure() {
+        close();
+        resultCache = createResultCache();
+        if (!configManager.isUseBuiltinRcon() && configManager.isRconConfigured()) {
+            connectExternalRconAsync();
         }
+        logger.info("RCON reconfigured (" + (configManager.isUseBuiltinRcon() ? "builtin" : "external") + ")");
     }
 
     public boolean isAvailable() {
@@ -66,6 +102,17 @@ public class RconManager {
         }
     }
 
+    /**
+     * 执行命令，白名单内的只读命令会使用结果缓存
+     */
+    public String executeCommandCached(String command) throws Exception {
+        return resultCache.get(command, () -> executeCommand(command));
+    }
+
+    public RconResultCache getResultCache() {
+        return resultCache;
+    }
+
     public void close() {
         if (rconSocket != null) {
             try {
@@ -77,41 +124,83 @@ public class RconManager {
         rconConnected = false;
     }
 
+    /**
+     * 开始关闭：等待执行的内置命令立即失败，之后提交的内置命令直接拒绝
+     *
+     * @return 失败的命令数
+     */
+    public int beginShutdown() {
+        shuttingDown = true;
+        int failed = 0;
+        for (CompletableFuture<?> future : pendingBuiltin) {
+            if (future.completeExceptionally(new IllegalStateException("Client is shutting down"))) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
     /**
      * 异步执行内置命令（推荐使用）
      */
     public CompletableFuture<String> executeBuiltinCommandAsync(String command) {
-        CompletableFuture<String> future = new CompletableFuture<>();
+        return callOnGlobalThread(() -> Bukkit.dispatchCommand(Bukkit.getConsoleSender(), command) ? "Success" : "Failed");
+    }
+
+    private String executeBuiltinCommand(String command) throws Exception {
+        try {
+            return executeBuiltinCommandAsync(command).get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
 
-        CompletableFuture.runAsync(() -> {
+    /**
+     * 在全局线程执行，命令必须在主线程（Folia 为全局区域线程）派发
+     * 登记到 pendingBuiltin，关闭时可以直接失败而不必等待主线程
+     */
+    private <T> CompletableFuture<T> callOnGlobalThread(Callable<T> action) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        pendingBuiltin.add(future);
+        future.whenComplete((result, throwable) -> pendingBuiltin.remove(future));
+        // 登记后再检查，避免与 beginShutdown 交错时漏掉
+        if (shuttingDown) {
+            future.completeExceptionally(new IllegalStateException("Client is shutting down"));
+            return future;
+        }
+
+        foliaLib.getScheduler().runNextTick(task -> {
+            if (future.isDone()) {
+                return;
+            }
             try {
-                ConsoleCommandSender consoleSender = Bukkit.getConsoleSender();
-                boolean success = Bukkit.dispatchCommand(consoleSender, command);
-                String output = success ? "Success" : "Failed";
-                future.complete(output);
+                future.complete(action.call());
             } catch (Exception e) {
                 future.completeExceptionally(e);
             }
         });
-
         return future;
     }
 
-    private String executeBuiltinCommand(String command) throws Exception {
-        CompletableFuture<String> future = new CompletableFuture<>();
+    /**
+     * 流式执行命令，输出按行回调给 lineConsumer
+     * 内置方式在全局线程执行并逐条捕获命令反馈，外部 RCON 将响应按行拆分
+     *
+     * @return 命令是否执行成功
+     */
+    public CompletableFuture<Boolean> executeCommandStreaming(String command, Consumer<String> lineConsumer) {
+        if (!configManager.isUseBuiltinRcon()) {
+            return executeExternalRconCommandAsync(command).thenApply(body -> {
+                body.lines().forEach(lineConsumer);
+                return true;
+            });
+        }
 
-        CompletableFuture.runAsync(() -> {
-            try {
-                ConsoleCommandSender consoleSender = Bukkit.getConsoleSender();
-                boolean success = Bukkit.dispatchCommand(consoleSender, command);
-                String output = success ? "Success" : "Failed";
-                future.complete(output);
-            } catch (Exception e) {
-                future.completeExceptionally(e);
-            }
+        return callOnGlobalThread(() -> {
+            CommandSender sender = Bukkit.getServer().createCommandSender(feedback ->
+                    PLAIN_TEXT.serialize(feedback).lines().forEach(lineConsumer));
+            return Bukkit.dispatchCommand(sender, command);
         });
-
-        return future.get(10, TimeUnit.SECONDS);
     }
 
     private String executeExternalRconCommand(String command) throws Exception {
@@ -161,7 +250,7 @@ public class RconManager {
                 logger.log(Level.SEVERE, "Fail to connect remote RCON server asynchronously!", e);
                 rconConnected = false;
             }
-        });
+        }, ioExecutor);
     }
 
     /**
@@ -192,7 +281,7 @@ public class RconManager {
                     throw new RuntimeException("RCON command execution failed", e);
                 }
             }
-        });
+        }, ioExecutor);
     }
 
     /**
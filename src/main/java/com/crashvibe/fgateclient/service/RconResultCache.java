@@ -0,0 +1,127 @@
+package com.crashvibe.fgateclient.service;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RCON 结果缓存 - 缓存白名单内只读命令的输出，并合并并发的相同请求
+ */
+public class RconResultCache {
+
+    private static final long WAIT_TIMEOUT_SECONDS = 10;
+
+    // 命令 -> 缓存时间（纳秒）
+    private final Map<String, Long> ttlNanos = new ConcurrentHashMap<>();
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RconResultCache(Map<String, Long> ttlMillis) {
+        for (Map.Entry<String, Long> entry : ttlMillis.entrySet()) {
+            ttlNanos.put(normalize(entry.getKey()), TimeUnit.MILLISECONDS.toNanos(entry.getValue()));
+        }
+    }
+
+    /**
+     * 命令是否在缓存白名单内
+     */
+    public boolean isCacheable(String command) {
+        return ttlNanos.containsKey(normalize(command));
+    }
+
+    /**
+     * 获取命令输出，白名单外的命令直接执行 loader；
+     * 白名单内的命令命中缓存或等待正在执行的同一命令
+     */
+    public String get(String command, Callable<String> loader) throws Exception {
+        String key = normalize(command);
+        Long ttl = ttlNanos.get(key);
+        if (ttl == null) {
+            return loader.call();
+        }
+
+        while (true) {
+            Entry current = entries.get(key);
+            if (current != null && current.isValid(System.nanoTime())) {
+                hits.increment();
+                return await(current.future);
+            }
+
+            Entry own = new Entry();
+            boolean claimed = current == null
+                    ? entries.putIfAbsent(key, own) == null
+                    : entries.replace(key, current, own);
+            if (!claimed) {
+                // 其他线程抢先开始执行，重新读取
+                continue;
+            }
+
+            misses.increment();
+            try {
+                String output = loader.call();
+                own.expiresAt = System.nanoTime() + ttl;
+                own.future.complete(output);
+                return output;
+            } catch (Exception e) {
+                entries.remove(key, own);
+                own.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 清空所有缓存结果
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int getCachedCommandCount() {
+        return ttlNanos.size();
+    }
+
+    private String await(CompletableFuture<String> future) throws Exception {
+        try {
+            return future.get(WAIT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
+
+    private static String normalize(String command) {
+        String normalized = command.trim();
+        if (normalized.startsWith("/")) {
+            normalized = normalized.substring(1);
+        }
+        return normalized.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        final CompletableFuture<String> future = new CompletableFuture<>();
+        // 执行完成前为 Long.MAX_VALUE，等待者直接共享 future
+        volatile long expiresAt = Long.MAX_VALUE;
+
+        boolean isValid(long now) {
+            return !future.isDone() || now - expiresAt < 0;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.crashvibe.fgateclient.service;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import com.google.gson.JsonObject;
+import com.tcoded.folialib.FoliaLib;
+import com.tcoded.folialib.wrapper.task.WrappedTask;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 运行状态采样器 - 定时生成 {@link TelemetrySnapshot}，读取方直接使用最近一次的快照
+ * tick 耗时由 ServerTickEndEvent 写入环形缓冲区；区块与实体数在主线程统计，其余指标在异步线程采样
+ */
+public class TelemetrySampler implements Listener {
+
+    // 保留最近 1200 个 tick（约 60 秒）的耗时
+    private static final int TICK_WINDOW = 1200;
+
+    private final Logger logger;
+    private final FoliaLib foliaLib;
+    private final OnlinePlayerIndex playerIndex;
+    private long intervalTicks;
+    private final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final List<GarbageCollectorMXBean> gcBeans = ManagementFactory.getGarbageCollectorMXBeans();
+    // tick 耗时（微秒）环形缓冲区，只由主线程写入
+    private final AtomicLongArray tickMicros = new AtomicLongArray(TICK_WINDOW);
+    private final AtomicLong tickCount = new AtomicLong();
+    // 上次采样时的 GC 累计次数与耗时，只在采样线程内访问
+    private final Map<String, long[]> lastGc = new HashMap<>();
+    private volatile WorldCounts worldCounts = new WorldCounts(0, -1, -1);
+    private volatile Published published = Published.of(TelemetrySnapshot.EMPTY);
+    private WrappedTask sampleTask;
+    private WrappedTask worldTask;
+
+    public TelemetrySampler(Logger logger, FoliaLib foliaLib, OnlinePlayerIndex playerIndex, long intervalTicks) {
+        this.logger = logger;
+        this.foliaLib = foliaLib;
+        this.playerIndex = playerIndex;
+        this.intervalTicks = Math.max(1, intervalTicks);
+    }
+
+    public synchronized void start() {
+        if (sampleTask != null) {
+            return;
+        }
+
+        if (!foliaLib.isFolia()) {
+            // Folia 没有统一的主线程，区块与实体数无法安全统计
+            worldTask = foliaLib.getScheduler().runTimer(this::countWorlds, 1, intervalTicks);
+        }
+        sampleTask = foliaLib.getScheduler().runTimerAsync(this::sample, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * 修改采样间隔，运行中时立即按新间隔重新调度
+     */
+    public synchronized void setIntervalTicks(long intervalTicks) {
+        this.intervalTicks = Math.max(1, intervalTicks);
+        if (sampleTask != null) {
+            stop();
+            start();
+        }
+    }
+
+    public synchronized void stop() {
+        if (sampleTask != null) {
+            sampleTask.cancel();
+            sampleTask = null;
+        }
+        if (worldTask != null) {
+            worldTask.cancel();
+            worldTask = null;
+        }
+    }
+
+    /**
+     * 获取最近一次的快照
+     */
+    public TelemetrySnapshot getSnapshot() {
+        return published.snapshot();
+    }
+
+    /**
+     * 获取最近一次快照的 JSON 形式，采样时已生成，调用方不得修改
+     */
+    public JsonObject getSnapshotJson() {
+        return published.json();
+    }
+
+    /**
+     * 获取最近一次快照的扁平指标，采样时已生成
+     */
+    public Map<String, Double> getMetrics() {
+        return published.metrics();
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onTickEnd(ServerTickEndEvent event) {
+        long tick = tickCount.getAndIncrement();
+        tickMicros.lazySet((int) (tick % TICK_WINDOW), (long) (event.getTickDuration() * 1000));
+    }
+
+    private void countWorlds() {
+        List<World> worlds = Bukkit.getWorlds();
+        int chunks = 0;
+        int entities = 0;
+        for (World world : worlds) {
+            chunks += world.getChunkCount();
+            entities += world.getEntityCount();
+        }
+        worldCounts = new WorldCounts(worlds.size(), chunks, entities);
+    }
+
+    private synchronized void sample() {
+        try {
+            TelemetrySnapshot snapshot = collect();
+            published = Published.of(snapshot);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to sample telemetry", e);
+        }
+    }
+
+    private TelemetrySnapshot collect() {
+        MemoryUsage heap = memoryBean.getHeapMemoryUsage();
+        MemoryUsage nonHeap = memoryBean.getNonHeapMemoryUsage();
+        WorldCounts counts = worldCounts;
+
+        return new TelemetrySnapshot(
+                System.currentTimeMillis(),
+                readTps(),
+                computeMspt(),
+                new TelemetrySnapshot.Memory(heap.getUsed(), heap.getCommitted(), heap.getMax(),
+                        nonHeap.getUsed(), nonHeap.getCommitted()),
+                collectGc(),
+                new TelemetrySnapshot.Threads(threadBean.getThreadCount(), threadBean.getDaemonThreadCount(),
+                        threadBean.getPeakThreadCount()),
+                counts.worlds() > 0 ? counts.worlds() : Bukkit.getWorlds().size(),
+                counts.chunks(),
+                counts.entities(),
+                playerIndex.size());
+    }
+
+    private static double[] readTps() {
+        try {
+            return Bukkit.getTPS();
+        } catch (UnsupportedOperationException e) {
+            // Folia 按区域计算 TPS，没有全服数值
+            return new double[0];
+        }
+    }
+
+    private TelemetrySnapshot.Mspt computeMspt() {
+        int samples = (int) Math.min(tickCount.get(), TICK_WINDOW);
+        if (samples == 0) {
+            return new TelemetrySnapshot.Mspt(0, 0, 0, 0, 0, 0);
+        }
+
+        long[] values = new long[samples];
+        long total = 0;
+        for (int i = 0; i < samples; i++) {
+            values[i] = tickMicros.get(i);
+            total += values[i];
+        }
+        Arrays.sort(values);
+
+        return new TelemetrySnapshot.Mspt(samples,
+                total / (double) samples / 1000,
+                percentile(values, 0.50),
+                percentile(values, 0.95),
+                percentile(values, 0.99),
+                values[samples - 1] / 1000.0);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(sorted.length * quantile) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1000.0;
+    }
+
+    private List<TelemetrySnapshot.GcStats> collectGc() {
+        List<TelemetrySnapshot.GcStats> stats = new ArrayList<>(gcBeans.size());
+        for (GarbageCollectorMXBean bean : gcBeans) {
+            long count = Math.max(0, bean.getCollectionCount());
+            long time = Math.max(0, bean.getCollectionTime());
+            long[] last = lastGc.put(bean.getName(), new long[]{count, time});
+            long recentCount = last != null ? count - last[0] : 0;
+            long recentMillis = last != null ? time - last[1] : 0;
+            stats.add(new TelemetrySnapshot.GcStats(bean.getName(), count, time, recentCount, recentMillis));
+        }
+        return stats;
+    }
+
+    private record WorldCounts(int worlds, int chunks, int entities) {
+    }
+
+    private record Published(TelemetrySnapshot snapshot, JsonObject json, Map<String, Double> metrics) {
+
+        static Published of(TelemetrySnapshot snapshot) {
+            return new Published(snapshot, snapshot.toJson(), snapshot.toMetrics());
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.crashvibe.fgateclient.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 服务器运行状态快照 - 由 {@link TelemetrySampler} 定时生成，生成后不再修改
+ *
+ * @param timestamp 采样时间（毫秒）
+ * @param tps       最近 1、5、15 分钟的 TPS，不支持时为空数组
+ * @param mspt      最近一段时间的 tick 耗时统计（毫秒）
+ */
+public record TelemetrySnapshot(long timestamp,
+                                double[] tps,
+                                Mspt mspt,
+                                Memory memory,
+                                List<GcStats> gc,
+                                Threads threads,
+                                int worlds,
+                                int loadedChunks,
+                                int entities,
+                                int players) {
+
+    public static final TelemetrySnapshot EMPTY = new TelemetrySnapshot(0, new double[0],
+            new Mspt(0, 0, 0, 0, 0, 0), new Memory(0, 0, 0, 0, 0), List.of(), new Threads(0, 0, 0), 0, 0, 0, 0);
+
+    public TelemetrySnapshot {
+        tps = tps.clone();
+        gc = List.copyOf(gc);
+    }
+
+    @Override
+    public double[] tps() {
+        return tps.clone();
+    }
+
+    /**
+     * @param samples 参与统计的 tick 数
+     */
+    public record Mspt(int samples, double average, double p50, double p95, double p99, double max) {
+    }
+
+    /**
+     * 内存使用（字节），max 未限定时为 -1
+     */
+    public record Memory(long heapUsed, long heapCommitted, long heapMax, long nonHeapUsed, long nonHeapCommitted) {
+    }
+
+    /**
+     * 垃圾回收统计
+     *
+     * @param count        累计次数
+     * @param timeMillis   累计耗时
+     * @param recentCount  距上次采样新增的次数
+     * @param recentMillis 距上次采样新增的耗时
+     */
+    public record GcStats(String name, long count, long timeMillis, long recentCount, long recentMillis) {
+    }
+
+    public record Threads(int live, int daemon, int peak) {
+    }
+
+    public JsonObject toJson() {
+        JsonObject json = new JsonObject();
+        json.addProperty("timestamp", timestamp);
+
+        JsonArray tpsArray = new JsonArray();
+        for (double value : tps) {
+            tpsArray.add(round(value));
+        }
+        json.add("tps", tpsArray);
+
+        JsonObject msptJson = new JsonObject();
+        msptJson.addProperty("samples", mspt.samples());
+        msptJson.addProperty("avg", round(mspt.average()));
+        msptJson.addProperty("p50", round(mspt.p50()));
+        msptJson.addProperty("p95", round(mspt.p95()));
+        msptJson.addProperty("p99", round(mspt.p99()));
+        msptJson.addProperty("max", round(mspt.max()));
+        json.add("mspt", msptJson);
+
+        JsonObject memoryJson = new JsonObject();
+        memoryJson.addProperty("heap_used", memory.heapUsed());
+        memoryJson.addProperty("heap_committed", memory.heapCommitted());
+        memoryJson.addProperty("heap_max", memory.heapMax());
+        memoryJson.addProperty("non_heap_used", memory.nonHeapUsed());
+        memoryJson.addProperty("non_heap_committed", memory.nonHeapCommitted());
+        json.add("memory", memoryJson);
+
+        JsonArray gcArray = new JsonArray();
+        for (GcStats stats : gc) {
+            JsonObject gcJson = new JsonObject();
+            gcJson.addProperty("name", stats.name());
+            gcJson.addProperty("count", stats.count());
+            gcJson.addProperty("time_ms", stats.timeMillis());
+            gcJson.addProperty("recent_count", stats.recentCount());
+            gcJson.addProperty("recent_ms", stats.recentMillis());
+            gcArray.add(gcJson);
+        }
+        json.add("gc", gcArray);
+
+        JsonObject threadsJson = new JsonObject();
+        threadsJson.addProperty("live", threads.live());
+        threadsJson.addProperty("daemon", threads.daemon());
+        threadsJson.addProperty("peak", threads.peak());
+        json.add("threads", threadsJson);
+
+        json.addProperty("worlds", worlds);
+        json.addProperty("loaded_chunks", loadedChunks);
+        json.addProperty("entities", entities);
+        json.addProperty("players", players);
+        return json;
+    }
+
+    /**
+     * 展开为 名称 -> 数值 的扁平形式，用于按名称订阅与增量推送；不可用的指标不包含在内
+     */
+    public Map<String, Double> toMetrics() {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        String[] tpsNames = {"tps.1m", "tps.5m", "tps.15m"};
+        for (int i = 0; i < tps.length && i < tpsNames.length; i++) {
+            metrics.put(tpsNames[i], round(tps[i]));
+        }
+
+        metrics.put("mspt.avg", round(mspt.average()));
+        metrics.put("mspt.p50", round(mspt.p50()));
+        metrics.put("mspt.p95", round(mspt.p95()));
+        metrics.put("mspt.p99", round(mspt.p99()));
+        metrics.put("mspt.max", round(mspt.max()));
+
+        metrics.put("memory.heap_used", (double) memory.heapUsed());
+        metrics.put("memory.heap_committed", (double) memory.heapCommitted());
+        metrics.put("memory.heap_max", (double) memory.heapMax());
+        metrics.put("memory.non_heap_used", (double) memory.nonHeapUsed());
+        metrics.put("memory.non_heap_committed", (double) memory.nonHeapCommitted());
+
+        for (GcStats stats : gc) {
+            String prefix = "gc." + stats.name().replace(' ', '_') + ".";
+            metrics.put(prefix + "count", (double) stats.count());
+            metrics.put(prefix + "time_ms", (double) stats.timeMillis());
+            metrics.put(prefix + "recent_count", (double) stats.recentCount());
+            metrics.put(prefix + "recent_ms", (double) stats.recentMillis());
+        }
+
+        metrics.put("threads.live", (double) threads.live());
+        metrics.put("threads.daemon", (double) threads.daemon());
+        metrics.put("threads.peak", (double) threads.peak());
+
+        metrics.put("worlds", (double) worlds);
+        if (loadedChunks >= 0) {
+            metrics.put("loaded_chunks", (double) loadedChunks);
+        }
+        if (entities >= 0) {
+            metrics.put("entities", (double) entities);
+        }
+        metrics.put("players", (double) players);
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -1,19 +1,25 @@
 package com.crashvibe.fgateclient.service;
 
 import com.crashvibe.fgateclient.ConfigManager;
+import com.crashvibe.fgateclient.ExecutionManager;
 import com.crashvibe.fgateclient.handler.RequestDispatcher;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 import com.google.gson.JsonParser;
-import com.tcoded.folialib.FoliaLib;
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
 
 import java.net.URI;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -24,8 +30,10 @@ public class WebSocketManager extends WebSocketClient {
 
     private static final int MAX_RETRY_COUNT = 5;
     public final Map<String, CompletableFuture<JsonObject>> pendingRequests = new ConcurrentHashMap<>();
+    // 连接关闭时通知，用于清理与本次连接绑定的状态
+    private final List<Runnable> closeListeners = new CopyOnWriteArrayList<>();
     private final Logger logger;
-    private final FoliaLib foliaLib;
+    private final ExecutionManager executors;
     private final ConfigManager configManager;
     private final RequestDispatcher requestDispatcher;
     private final String clientVersion;
@@ -33,8 +41,10 @@ public class WebSocketManager extends WebSocketClient {
     private boolean connected = false;
     private int retryCount = 0;
     private long lastReconnectAttempt = 0;
+    // 关闭流程开始后不再自动重连
+    private volatile boolean shuttingDown = false;
 
-    public WebSocketManager(URI uri, String token, Logger logger, FoliaLib foliaLib,
+    public WebSocketManager(URI uri, String token, Logger logger, ExecutionManager executors,
                             ConfigManager configManager, RequestDispatcher requestDispatcher,
                             String clientVersion) {
 
@@ -47,7 +57,7 @@ public class WebSocketManager extends WebSocketClient {
 
         this.uri = uri;
         this.logger = logger;
-        this.foliaLib = foliaLib;
+        this.executors = executors;
         this.configManager = configManager;
         this.requestDispatcher = requestDispatcher;
         this.clientVersion = clientVersion;
@@ -65,22 +75,17 @@ public class WebSocketManager extends WebSocketClient {
                 logger.severe("WebSocket URL & Token cannot be null!");
                 disconnect();
             }
-        });
+        }, executors.cpu());
     }
 
     @Override
     public void onMessage(String message) {
-        CompletableFuture.runAsync(() -> {
-            if (configManager.getConfig().getBoolean("debug.enable")) {
-                logger.info("收到来自服务器的消息: " + message);
-            }
-
-            try {
-                handleMessage(message);
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, "处理消息时发生错误: " + message, e);
-            }
-        });
+        // 在接收线程解析并交给分发器，由分发器按处理器的执行策略切换一次线程
+        try {
+            handleMessage(message);
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "处理消息时发生错误: " + message, e);
+        }
     }
 
     @Override
@@ -90,6 +95,14 @@ public class WebSocketManager extends WebSocketClient {
         final boolean shouldReconnect = remote;
 
         CompletableFuture.runAsync(() -> {
+            for (Runnable listener : closeListeners) {
+                try {
+                    listener.run();
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "Close listener failed", e);
+                }
+            }
+
             if (code == 1000 || code == 1006) {
                 logger.warning("Connection has closed because " + finalReason + " (Code: " + code + ")");
             }
@@ -97,7 +110,7 @@ public class WebSocketManager extends WebSocketClient {
             if (shouldReconnect) {
                 scheduleReconnect();
             }
-        });
+        }, executors.cpu());
     }
 
     @Override
@@ -117,7 +130,14 @@ public class WebSocketManager extends WebSocketClient {
             } else if (retryCount == 10) {
                 logger.severe("Reach max retry count!Please restart your server for try again!");
             }
-        });
+        }, executors.cpu());
+    }
+
+    /**
+     * 注册连接关闭监听器，每次连接关闭（包括重连前）都会调用
+     */
+    public void addCloseListener(Runnable listener) {
+        closeListeners.add(listener);
     }
 
     /**
@@ -130,7 +150,7 @@ public class WebSocketManager extends WebSocketClient {
             if (client != null) {
                 client.close();
             }
-        });
+        }, executors.io());
     }
 
     public void disconnect() {
@@ -163,8 +183,8 @@ public class WebSocketManager extends WebSocketClient {
                 response.add("result", result);
             }
 
-            send(response);
-        });
+            sendResponseMessage(id, response);
+        }, executors.cpu());
     }
 
     @SuppressWarnings("unused")
@@ -182,7 +202,26 @@ public class WebSocketManager extends WebSocketClient {
             response.add("result", result);
         }
 
-        send(response);
+        sendResponseMessage(id, response);
+    }
+
+    /**
+     * 发送带错误码与附加数据的错误响应
+     */
+    public void sendErrorResponse(String id, int code, String message, JsonObject data) {
+        JsonObject response = new JsonObject();
+        response.addProperty("id", id);
+        response.addProperty("jsonrpc", "2.0");
+
+        JsonObject errorObj = new JsonObject();
+        errorObj.addProperty("code", code);
+        errorObj.addProperty("message", message);
+        if (data != null) {
+            errorObj.add("data", data);
+        }
+        response.add("error", errorObj);
+
+        sendResponseMessage(id, response);
     }
 
     /**
@@ -191,7 +230,7 @@ public class WebSocketManager extends WebSocketClient {
     @SuppressWarnings("unused")
     public CompletableFuture<Void> sendAsync(JsonObject message) {
         return CompletableFuture.runAsync(() -> {
-            if (configManager.getConfig().getBoolean("debug.enable")) {
+            if (configManager.isDebug()) {
                 logger.info("Send message: " + message);
             }
             if (isConnected()) {
@@ -199,23 +238,43 @@ public class WebSocketManager extends WebSocketClient {
             } else {
                 throw new RuntimeException("WebSocket is not connected");
             }
-        });
+        }, executors.cpu());
     }
 
     @SuppressWarnings("unused")
     public void send(JsonObject message) {
-        if (configManager.getConfig().getBoolean("debug.enable")) {
+        sendRaw(message.toString());
+    }
+
+    /**
+     * 发送已序列化的消息
+     */
+    public void sendRaw(String message) {
+        if (configManager.isDebug()) {
             logger.info("Send message: " + message);
         }
         if (isConnected()) {
-            client.send(message.toString());
+            client.send(message);
         }
     }
 
-    @SuppressWarnings("unused")
-    private void processMessage(JsonObject json) {
+    /**
+     * 发送响应并交给分发器记录，主机端重发同一请求时直接返回该响应
+     */
+    private void sendResponseMessage(String id, JsonObject response) {
+        String message = response.toString();
+        if (id != null) {
+            requestDispatcher.recordResponse(id, message);
+        }
+        sendRaw(message);
+    }
+
+    /**
+     * @param payloadSize 原始消息长度，批量消息中的单条请求传 0
+     */
+    private void processMessage(JsonObject json, int payloadSize) {
         try {
-            if (configManager.getConfig().getBoolean("debug.enable")) {
+            if (configManager.isDebug()) {
                 logger.info("Processing WebSocket message: " + json.toString());
             }
 
@@ -223,7 +282,7 @@ public class WebSocketManager extends WebSocketClient {
                 handleSystemMessage(json);
             } else if (json.has("method")) {
                 String method = json.get("method").getAsString();
-                requestDispatcher.dispatch(method, json);
+                requestDispatcher.dispatch(method, json, payloadSize);
             } else if (json.has("id") && !json.get("id").isJsonNull()) {
                 handleResponse(json);
             }
@@ -232,36 +291,36 @@ public class WebSocketManager extends WebSocketClient {
         }
     }
 
-    @SuppressWarnings("unused")
     private void processMessage(JsonArray array) {
-        for (int i = 0; i < array.size(); i++) {
-            var json = array.get(i).getAsJsonObject();
-            CompletableFuture.runAsync(() -> processMessage(json));
+        for (JsonElement element : array) {
+            if (element.isJsonObject()) {
+                // 批量消息中每个元素按自身序列化后的长度计入请求大小
+                processMessage(element.getAsJsonObject(), element.toString().length());
+            } else {
+                logger.warning("Ignored non-object element in batch message: " + element);
+            }
         }
     }
 
     private void handleMessage(String message) {
-        try {
-            if (configManager.getConfig().getBoolean("debug.enable")) {
-                logger.info("收到来自服务器的原始消息: " + message);
-            }
+        if (configManager.isDebug()) {
+            logger.info("收到来自服务器的原始消息: " + message);
+        }
 
-            JsonObject json = JsonParser.parseString(message).getAsJsonObject();
+        JsonElement json;
+        try {
+            json = JsonParser.parseString(message);
+        } catch (JsonParseException e) {
+            logger.severe("消息格式错误，无法解析为JSON: " + message);
+            return;
+        }
 
-            if (json.has("id") && !json.get("id").isJsonNull() &&
-                    (json.has("result") || json.has("error"))) {
-                processMessage(json);
-            } else {
-                CompletableFuture.runAsync(() -> processMessage(json));
-            }
-        } catch (Exception e) {
-            try {
-                JsonArray json = JsonParser.parseString(message).getAsJsonArray();
-                processMessage(json);
-            } catch (Exception e2) {
-                logger.severe("消息格式错误，既不是JSON对象也不是JSON数组: " + message);
-                throw new RuntimeException("Message received is not a json object or a json array!");
-            }
+        if (json.isJsonObject()) {
+            processMessage(json.getAsJsonObject(), message.length());
+        } else if (json.isJsonArray()) {
+            processMessage(json.getAsJsonArray());
+        } else {
+            logger.severe("消息格式错误，既不是JSON对象也不是JSON数组: " + message);
         }
     }
 
@@ -287,14 +346,15 @@ public class WebSocketManager extends WebSocketClient {
     private void handleResponse(JsonObject json) {
         String id = json.get("id").getAsString();
 
-        if (configManager.getConfig().getBoolean("debug.enable")) {
+        if (configManager.isDebug()) {
             logger.info("Handling response for request ID: " + id);
         }
 
         CompletableFuture<JsonObject> future = pendingRequests.remove(id);
         if (future != null) {
-            future.complete(json);
-            if (configManager.getConfig().getBoolean("debug.enable")) {
+            // 调用方的后续回调不在接收线程上执行
+            executors.cpu().execute(() -> future.complete(json));
+            if (configManager.isDebug()) {
                 logger.info("Response completed for request ID: " + id);
             }
         } else {
@@ -322,6 +382,10 @@ public class WebSocketManager extends WebSocketClient {
     }
 
     private void scheduleReconnect() {
+        if (shuttingDown) {
+            return;
+        }
+
         long now = System.currentTimeMillis();
         if (now - lastReconnectAttempt < 5000) { // 5秒内不重复尝试重连
             logger.warning("Reconnection attempt too frequent, skipping");
@@ -333,7 +397,7 @@ public class WebSocketManager extends WebSocketClient {
         // 使用退避策略，初始1秒，每次增加1秒，最大10秒
         long delay = Math.min(10000, 1000 * (retryCount + 1));
 
-        foliaLib.getScheduler().runLaterAsync(task -> {
+        executors.schedule(executors.io(), () -> {
             try {
                 reconnect();
                 retryCount++;
@@ -343,7 +407,7 @@ public class WebSocketManager extends WebSocketClient {
             } catch (Exception e) {
                 logger.log(Level.SEVERE, "Reconnect failed: " + e.getMessage(), e);
             }
-        }, delay, java.util.concurrent.TimeUnit.MILLISECONDS);
+        }, delay, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -355,6 +419,26 @@ public class WebSocketManager extends WebSocketClient {
      */
     @SuppressWarnings("unused")
     public CompletableFuture<JsonObject> sendRequestAsync(String method, JsonObject params) {
+        return sendRequestAsync(method, params, 5000);
+    }
+
+    /**
+     * 异步发送RPC请求并指定超时时间
+     * 请求写出后立即返回，多个请求可以同时在途，响应按请求 id 匹配
+     *
+     * @param method        方法名
+     * @param params        参数对象
+     * @param timeoutMillis 超时时间（毫秒）
+     * @return 响应JsonObject的CompletableFuture
+     */
+    public CompletableFuture<JsonObject> sendRequestAsync(String method, JsonObject params, long timeoutMillis) {
+        CompletableFuture<JsonObject> future = new CompletableFuture<>();
+        if (!isConnected()) {
+            // 未连接时请求不会被发出，直接失败而不是等到超时
+            future.completeExceptionally(new IllegalStateException(method + " request failed: WebSocket is not connected"));
+            return future;
+        }
+
         String requestId = java.util.UUID.randomUUID().toString();
         JsonObject request = new JsonObject();
         request.addProperty("jsonrpc", "2.0");
@@ -364,24 +448,23 @@ public class WebSocketManager extends WebSocketClient {
             request.add("params", params);
         }
 
-        CompletableFuture<JsonObject> future = new CompletableFuture<>();
         this.pendingRequests.put(requestId, future);
 
-        if (configManager.getConfig().getBoolean("debug.enable")) {
+        if (configManager.isDebug()) {
             logger.info("Sending async request " + requestId + " for method: " + method);
         }
 
         this.send(request);
 
-        // 设置超时处理
-        CompletableFuture.delayedExecutor(5, java.util.concurrent.TimeUnit.SECONDS)
-                .execute(() -> {
-                    if (!future.isDone()) {
-                        this.pendingRequests.remove(requestId);
-                        future.completeExceptionally(new java.util.concurrent.TimeoutException(
-                                method + " request " + requestId + " timed out after 5 seconds"));
-                    }
-                });
+        // 设置超时处理，先收到响应时取消定时器
+        ScheduledFuture<?> timeout = executors.schedule(executors.cpu(), () -> {
+            if (!future.isDone()) {
+                this.pendingRequests.remove(requestId);
+                future.completeExceptionally(new java.util.concurrent.TimeoutException(
+                        method + " request " + requestId + " timed out after " + timeoutMillis + " ms"));
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        future.whenComplete((result, throwable) -> timeout.cancel(false));
 
         return future;
     }
@@ -447,12 +530,12 @@ public class WebSocketManager extends WebSocketClient {
                 }
             }
 
-            if (cleanedCount > 0 && configManager.getConfig().getBoolean("debug.enable")) {
+            if (cleanedCount > 0 && configManager.isDebug()) {
                 logger.info("Cleaned up " + cleanedCount + " completed/cancelled requests");
             }
 
             return cleanedCount;
-        });
+        }, executors.cpu());
     }
 
     /**
@@ -474,7 +557,7 @@ public class WebSocketManager extends WebSocketClient {
                 logger.warning("Failed to ensure connection: " + e.getMessage());
                 return false;
             }
-        });
+        }, executors.io());
     }
 
     /**
@@ -482,29 +565,29 @@ public class WebSocketManager extends WebSocketClient {
      */
     @SuppressWarnings("unused")
     public CompletableFuture<Map<String, JsonObject>> sendMultipleRequestsAsync(Map<String, JsonObject> methodParams) {
-        return CompletableFuture.supplyAsync(() -> {
-            Map<String, CompletableFuture<JsonObject>> futures = new HashMap<>();
-
-            // 发送所有请求
-            for (Map.Entry<String, JsonObject> entry : methodParams.entrySet()) {
-                futures.put(entry.getKey(), sendRequestAsync(entry.getKey(), entry.getValue()));
-            }
-
-            // 等待所有响应
-            Map<String, JsonObject> results = new HashMap<>();
-            for (Map.Entry<String, CompletableFuture<JsonObject>> entry : futures.entrySet()) {
-                try {
-                    JsonObject result = entry.getValue().get(10, java.util.concurrent.TimeUnit.SECONDS);
-                    if (result != null) {
-                        results.put(entry.getKey(), result);
-                    }
-                } catch (Exception e) {
-                    logger.warning("Failed to get response for method " + entry.getKey() + ": " + e.getMessage());
-                }
-            }
+        Map<String, CompletableFuture<JsonObject>> futures = new HashMap<>();
+
+        // 所有请求立即发出，不等待前一个响应
+        for (Map.Entry<String, JsonObject> entry : methodParams.entrySet()) {
+            String method = entry.getKey();
+            futures.put(method, sendRequestAsync(method, entry.getValue(), 10000)
+                    .exceptionally(e -> {
+                        logger.warning("Failed to get response for method " + method + ": " + e.getMessage());
+                        return null;
+                    }));
+        }
 
-            return results;
-        });
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    Map<String, JsonObject> results = new HashMap<>();
+                    futures.forEach((method, future) -> {
+                        JsonObject result = future.join();
+                        if (result != null) {
+                            results.put(method, result);
+                        }
+                    });
+                    return results;
+                });
     }
 
     /**
@@ -521,7 +604,7 @@ public class WebSocketManager extends WebSocketClient {
             stats.addProperty("uri", uri.toString());
             stats.addProperty("timestamp", System.currentTimeMillis());
             return stats;
-        });
+        }, executors.cpu());
     }
 
     /**
@@ -529,22 +612,102 @@ public class WebSocketManager extends WebSocketClient {
      */
     @SuppressWarnings("unused")
     public CompletableFuture<Boolean> healthCheckAsync() {
-        return CompletableFuture.supplyAsync(() -> {
-            if (!isConnected()) {
+        if (!isConnected()) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        // 发送ping请求测试连接
+        JsonObject pingParams = new JsonObject();
+        pingParams.addProperty("timestamp", System.currentTimeMillis());
+
+        return sendRequestAsync("ping", pingParams, 3000)
+                .thenApply(response -> response != null && !response.has("error"))
+                .exceptionally(e -> {
+                    logger.warning("Health check failed: " + e.getMessage());
+                    return false;
+                });
+    }
+
+    /**
+     * 进入关闭流程：之后连接断开时不再自动重连
+     */
+    public void beginShutdown() {
+        shuttingDown = true;
+    }
+
+    /**
+     * 等待发送队列中的消息全部写出
+     *
+     * @param deadlineNanos 截止时间（System.nanoTime）
+     * @return 是否在截止时间前写完（连接已断开时返回 false）
+     */
+    public boolean awaitFlushed(long deadlineNanos) throws InterruptedException {
+        while (isOpen() && hasBufferedData()) {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return !hasBufferedData();
+    }
+
+    /**
+     * 以异常结束所有等待主机响应的请求，不再等到各自超时
+     *
+     * @return 结束的请求数
+     */
+    public int failPendingRequests(String reason) {
+        int failed = 0;
+        for (String requestId : getPendingRequestIds()) {
+            CompletableFuture<JsonObject> future = pendingRequests.remove(requestId);
+            if (future != null && future.completeExceptionally(new IllegalStateException(reason))) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * 发起关闭握手并等待完成，超过截止时间直接断开底层连接
+     *
+     * @param deadlineNanos 截止时间（System.nanoTime）
+     * @return 是否完成了关闭握手
+     */
+    public boolean closeGracefully(int code, long deadlineNanos) throws InterruptedException {
+        connected = false;
+        if (!isOpen()) {
+            // 未建立连接或正在重连，没有可以等待的关闭握手
+            close(code);
+            return true;
+        }
+
+        close(code);
+        while (!isClosed()) {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                closeConnection(code, "Close handshake timed out");
                 return false;
             }
+            Thread.sleep(5);
+        }
+        return true;
+    }
 
-            // 发送ping请求测试连接
-            JsonObject pingParams = new JsonObject();
-            pingParams.addProperty("timestamp", System.currentTimeMillis());
+    /**
+     * 更新连接地址与令牌并重新连接，用于配置重新加载
+     */
+    public void reconfigure(URI uri, String token) {
+        this.uri = uri;
+        clearHeaders();
+        addHeader("Authorization", "Bearer " + token);
+        addHeader("X-API-Version", clientVersion);
+        retryCount = 0;
 
+        executors.io().execute(() -> {
             try {
-                JsonObject response = sendRequestAsync("ping", pingParams)
-                        .get(3, java.util.concurrent.TimeUnit.SECONDS);
-                return response != null && !response.has("error");
+                logger.info("WebSocket settings changed, reconnecting to " + uri);
+                reconnect();
             } catch (Exception e) {
-                logger.warning("Health check failed: " + e.getMessage());
-                return false;
+                logger.log(Level.SEVERE, "Reconnect after reconfigure failed", e);
             }
         });
     }
@@ -563,63 +726,48 @@ public class WebSocketManager extends WebSocketClient {
                 retryCount = 0;
 
                 // 使用异步调度器执行重连
-                foliaLib.getScheduler().runLaterAsync(task -> {
+                executors.schedule(executors.io(), () -> {
                     try {
                         reconnect();
                     } catch (Exception e) {
                         logger.log(Level.SEVERE, "Async reconnect failed", e);
                     }
-                }, 1000, java.util.concurrent.TimeUnit.MILLISECONDS);
+                }, 1000, TimeUnit.MILLISECONDS);
 
                 return isConnected();
             } catch (Exception e) {
                 logger.warning("Reset connection failed: " + e.getMessage());
                 return false;
             }
-        });
+        }, executors.io());
     }
 
     /**
      * @param params 参数对象
      */
     public void sendNotificationAsync(String method, JsonObject params) {
-        CompletableFuture.runAsync(() -> {
-            JsonObject notification = new JsonObject();
-            notification.addProperty("jsonrpc", "2.0");
-            notification.addProperty("method", method);
-            if (params != null) {
-                notification.add("params", params);
-            }
-            // 通知消息不包含 id 字段，表示不需要响应
-
-            if (configManager.getConfig().getBoolean("debug.enable")) {
-                logger.info("Sending notification for method: " + method);
-            }
-
-            send(notification);
-        });
+        executors.cpu().execute(() -> sendNotification(method, params));
     }
 
-    // 弃用-保留
-    // /**
-    // * 发送通知消息（同步版本，用于事件通知）
-    // *
-    // * @param method 方法名
-    // * @param params 参数对象
-    // */
-    // ublic void sendNotification(String method, JsonObject params) {
-    // JsonObject notification = new JsonObject();
-    // notification.addProperty("jsonrpc", "2.0");
-    // notification.addProperty("method", method);
-    // if (params != null) {
-    // notification.add("params", params);
-    // }
-    // // 通知消息不包含 id 字段，表示不需要响应
+    /**
+     * 发送通知消息（同步版本，调用方需要保证发送顺序时使用）
+     *
+     * @param method 方法名
+     * @param params 参数对象
+     */
+    public void sendNotification(String method, JsonObject params) {
+        JsonObject notification = new JsonObject();
+        notification.addProperty("jsonrpc", "2.0");
+        notification.addProperty("method", method);
+        if (params != null) {
+            notification.add("params", params);
+        }
+        // 通知消息不包含 id 字段，表示不需要响应
 
-    // configManager.getConfig().getBoolean("debug.enable")) {
-    // logger.info("Sending notification for method: " + method);
-    // }
+        if (configManager.isDebug()) {
+            logger.info("Sending notification for method: " + method);
+        }
 
-    // send(notification);
-    //
+        send(notification);
+    }
 }
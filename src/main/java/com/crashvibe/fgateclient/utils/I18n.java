@@ -1,215 +1,369 @@
 package com.crashvibe.fgateclient.utils;
 
 import com.crashvibe.fgateclient.ConfigManager;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+/**
+ * 多语言支持 - 每种语言加载为不可变的消息目录，整体替换
+ * 查询只读取当前目录，不加锁、不访问文件系统，也不修改共享状态
+ */
 @SuppressWarnings("unused")
 public class I18n {
-    private final Map<String, YamlConfiguration> cache = new HashMap<>();
-    private ConfigManager configManager;
-    private String lang;
-    private String fallbackLang;
-    private File baseDir;
 
-    public I18n(File dataFolder) {
+    // 插件内置的语言文件，首次加载时复制到数据目录供修改
+    private static final String[] BUNDLED_LANGUAGES = {"en_US", "zh_CN"};
+
+    private final File baseDir;
+    private final Logger logger;
+    private final AtomicReference<Catalogs> catalogs = new AtomicReference<>(Catalogs.EMPTY);
+    // 在线玩家 UUID -> 客户端语言代码，加入时写入、语言变化时更新、退出时移除
+    private final Map<UUID, String> playerLocales = new ConcurrentHashMap<>();
+    private volatile String fallbackLang = "zh_CN";
+
+    public I18n(File dataFolder, Logger logger) {
         this.baseDir = new File(dataFolder, "languages");
+        this.logger = logger;
         // 延迟初始化，避免循环依赖
     }
 
     /**
-     * 初始化配置管理器，在ServiceManager创建后调用
+     * 初始化配置管理器并加载语言文件，在ServiceManager创建后调用
      */
     public void initialize(ConfigManager configManager) {
-        this.configManager = configManager;
         this.fallbackLang = configManager.getFallbackLanguage();
+        saveDefaultLanguages();
+        reload();
     }
 
     /**
-     * 异步初始化配置管理器
+     * 异步初始化配置管理器并加载语言文件
+     *
+     * @param executor 读取语言文件的执行器
      */
-    public CompletableFuture<Void> initializeAsync(ConfigManager configManager) {
-        return CompletableFuture.runAsync(() -> {
-            this.configManager = configManager;
-            this.fallbackLang = configManager.getFallbackLanguage();
-        });
+    public CompletableFuture<Void> initializeAsync(ConfigManager configManager, Executor executor) {
+        return CompletableFuture.runAsync(() -> initialize(configManager), executor);
     }
 
-    public void setFallbackLang(String fallback) {
+    public synchronized void setFallbackLang(String fallback) {
         this.fallbackLang = fallback;
+        catalogs.updateAndGet(current -> current.withFallback(fallback));
     }
 
     /**
-     * 检查指定语言文件是否存在
+     * 重新加载全部语言文件，完成后整体替换；加载失败的语言保留原有内容
      */
-    private boolean isLanguageFileExists(String language) {
-        if (language == null)
-            return false;
-        File langFile = new File(baseDir, language + ".yml");
-        return langFile.exists();
+    public synchronized void reload() {
+        Catalogs current = catalogs.get();
+        Map<String, LanguageCatalog> loaded = new HashMap<>();
+
+        for (String locale : listLanguages()) {
+            LanguageCatalog catalog = loadOrKeep(current, locale);
+            if (catalog != null) {
+                loaded.put(locale, catalog);
+            }
+        }
+
+        Catalogs next = Catalogs.of(loaded, fallbackLang);
+        next.byLocale().values().forEach(catalog -> validate(catalog, next.fallback()));
+        catalogs.set(next);
+        logger.info("Loaded " + loaded.size() + " languages (fallback: " + fallbackLang + ")");
     }
 
     /**
-     * 获取有效的语言代码，如果语言文件不存在则使用 fallback
+     * 只重新加载指定的语言，其余语言沿用当前目录，完成后整体替换
+     * 文件已删除且不是内置语言时移除该语言
      */
-    private String getValidLanguage(String requestedLang) {
-        if (isLanguageFileExists(requestedLang)) {
-            return requestedLang;
-        }
+    public synchronized void reload(Collection<String> locales) {
+        Catalogs current = catalogs.get();
+        Map<String, LanguageCatalog> loaded = new HashMap<>(current.byLocale());
+        Set<String> bundled = Set.of(BUNDLED_LANGUAGES);
 
-        // 如果请求的语言文件不存在，尝试使用默认语言
-        if (isLanguageFileExists(lang)) {
-            return lang;
+        for (String locale : locales) {
+            if (!bundled.contains(locale) && !new File(baseDir, locale + ".yml").isFile()) {
+                if (loaded.remove(locale) != null) {
+                    logger.info("Removed language " + locale);
+                }
+                continue;
+            }
+            LanguageCatalog catalog = loadOrKeep(current, locale);
+            if (catalog != null) {
+                loaded.put(locale, catalog);
+            }
         }
 
-        // 如果默认语言文件也不存在，使用 fallback 语言
-        if (isLanguageFileExists(fallbackLang)) {
-            return fallbackLang;
+        Catalogs next = Catalogs.of(loaded, fallbackLang);
+        for (String locale : locales) {
+            LanguageCatalog catalog = next.byLocale().get(locale);
+            if (catalog != null) {
+                validate(catalog, next.fallback());
+            }
         }
+        catalogs.set(next);
+        logger.info("Reloaded languages " + locales);
+    }
 
-        // 如果 fallback 语言文件也不存在，返回请求的语言（让系统处理文件不存在的情况）
-        return requestedLang != null ? requestedLang : lang;
+    private LanguageCatalog loadOrKeep(Catalogs current, String locale) {
+        try {
+            return LanguageCatalog.load(locale, new File(baseDir, locale + ".yml"), "languages/" + locale + ".yml");
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to load language " + locale + ", keeping previous messages", e);
+            return current.byLocale().get(locale);
+        }
     }
 
-    public String getLangForPlayer(Player player) {
-        // 如果configManager还未初始化，使用默认值
-        if (configManager == null) {
-            return "en_US"; // 使用默认语言
+    /**
+     * 与 fallback 语言的键对比：缺少的键会回退到 fallback，多出的键通常是拼写错误
+     */
+    private void validate(LanguageCatalog catalog, LanguageCatalog fallback) {
+        if (catalog == fallback || fallback.templates().isEmpty()) {
+            return;
+        }
+
+        Set<String> missing = new TreeSet<>(fallback.templates().keySet());
+        missing.removeAll(catalog.templates().keySet());
+        if (!missing.isEmpty()) {
+            logger.info("Language " + catalog.locale() + " is missing " + missing.size()
+                    + " keys, using " + fallback.locale() + " for: " + missing);
         }
 
-        // 获取玩家客户端的locale设置
-        String clientLocale = player.locale().toString();
-        if (clientLocale != null && !clientLocale.isEmpty()) {
-            String convertedLocale = convertMinecraftLocale(clientLocale);
-            return getValidLanguage(convertedLocale);
+        Set<String> unknown = new TreeSet<>(catalog.templates().keySet());
+        unknown.removeAll(fallback.templates().keySet());
+        if (!unknown.isEmpty()) {
+            logger.warning("Language " + catalog.locale() + " has keys unknown to " + fallback.locale()
+                    + ": " + unknown);
         }
-        return getValidLanguage(lang);
     }
 
-    private String convertMinecraftLocale(String minecraftLocale) {
-        if (minecraftLocale == null || minecraftLocale.isEmpty()) {
-            return lang != null ? lang : "en_US"; // 提供默认值
+    /**
+     * 语言文件所在目录
+     */
+    public File getLanguagesFolder() {
+        return baseDir;
+    }
+
+    private Set<String> listLanguages() {
+        Set<String> locales = new TreeSet<>(List.of(BUNDLED_LANGUAGES));
+        File[] files = baseDir.listFiles((dir, name) -> name.endsWith(".yml"));
+        if (files != null) {
+            for (File file : files) {
+                locales.add(file.getName().substring(0, file.getName().length() - ".yml".length()));
+            }
         }
+        return locales;
+    }
 
-        String[] parts = minecraftLocale.split("_");
-        if (parts.length == 2) {
-            return parts[0].toLowerCase() + "_" + parts[1].toUpperCase();
+    private void saveDefaultLanguages() {
+        if (!baseDir.isDirectory() && !baseDir.mkdirs()) {
+            logger.warning("Failed to create languages folder: " + baseDir);
+            return;
         }
 
-        return minecraftLocale;
+        for (String locale : BUNDLED_LANGUAGES) {
+            File file = new File(baseDir, locale + ".yml");
+            if (file.exists()) {
+                continue;
+            }
+            try (InputStream in = I18n.class.getClassLoader().getResourceAsStream("languages/" + locale + ".yml")) {
+                if (in != null) {
+                    Files.copy(in, file.toPath());
+                }
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to save default language file " + file.getName(), e);
+            }
+        }
     }
 
-    public String get(String key) {
-        YamlConfiguration config = getLangConfig();
-        String value = config.getString(key, null);
-        if (value == null && fallbackLang != null && !fallbackLang.equals(lang)) {
-            YamlConfiguration fallbackConfig = getFallbackConfig();
-            value = fallbackConfig.getString(key, key);
+    /**
+     * 记录玩家的客户端语言，在玩家加入时调用
+     */
+    public void updatePlayerLocale(Player player) {
+        updatePlayerLocale(player.getUniqueId(), player.locale());
+    }
+
+    /**
+     * 玩家切换客户端语言时调用
+     */
+    public void updatePlayerLocale(UUID uuid, Locale locale) {
+        playerLocales.put(uuid, toLocaleKey(locale));
+    }
+
+    /**
+     * 玩家退出时调用
+     */
+    public void removePlayer(UUID uuid) {
+        playerLocales.remove(uuid);
+    }
+
+    /**
+     * 获取玩家使用的语言代码，没有对应语言文件时返回 fallback 语言
+     */
+    public String getLangForPlayer(Player player) {
+        return chainFor(catalogs.get(), player)[0].locale();
+    }
+
+    private LanguageCatalog[] chainFor(Catalogs current, Player player) {
+        String localeKey = playerLocales.get(player.getUniqueId());
+        if (localeKey == null) {
+            // 尚未加入的玩家（如登录事件中）不写入缓存，避免被拒绝登录后残留
+            localeKey = toLocaleKey(player.locale());
         }
-        return value != null ? value : key;
+        return current.chainFor(localeKey);
+    }
+
+    private static String toLocaleKey(Locale locale) {
+        return locale.getLanguage() + "_" + locale.getCountry();
+    }
+
+    /**
+     * 使用 fallback 语言获取消息，不存在时返回键本身
+     */
+    public String get(String key) {
+        return text(lookup(catalogs.get().fallbackChain(), key), key);
     }
 
     public String get(String key, Player player) {
-        String oldLang = lang;
-        lang = getLangForPlayer(player);
-        String value = get(key);
-        lang = oldLang;
-        return value;
+        return text(lookup(chainFor(catalogs.get(), player), key), key);
     }
 
-    public String format(String key, Map<String, String> params) {
-        String msg = get(key);
-        if (params != null) {
-            for (Map.Entry<String, String> entry : params.entrySet()) {
-                msg = msg.replace("{" + entry.getKey() + "}", entry.getValue());
+    private static MessageTemplate lookup(LanguageCatalog[] chain, String key) {
+        for (LanguageCatalog catalog : chain) {
+            MessageTemplate template = catalog.get(key);
+            if (template != null) {
+                return template;
             }
         }
-        return msg;
+        return null;
     }
 
-    public String format(String key, Map<String, String> params, Player player) {
-        String oldLang = lang;
-        lang = getLangForPlayer(player);
-        String msg = get(key);
-        lang = oldLang;
-        if (params != null) {
-            for (Map.Entry<String, String> entry : params.entrySet()) {
-                msg = msg.replace("{" + entry.getKey() + "}", entry.getValue());
-            }
-        }
-        return msg;
+    private static String text(MessageTemplate template, String key) {
+        return template != null ? template.text() : key;
     }
 
-    private YamlConfiguration getFallbackConfig() {
-        if (baseDir == null || fallbackLang == null)
-            throw new IllegalStateException("I18n baseDir or fallbackLang not initialized");
+    public String format(String key, Map<String, String> params) {
+        MessageTemplate template = lookup(catalogs.get().fallbackChain(), key);
+        return template != null ? template.format(params) : key;
+    }
 
-        String validFallbackLang = getValidLanguage(fallbackLang);
-        String fileName = validFallbackLang + ".yml";
+    public String format(String key, Map<String, String> params, Player player) {
+        MessageTemplate template = lookup(chainFor(catalogs.get(), player), key);
+        return template != null ? template.format(params) : key;
+    }
 
-        if (!cache.containsKey(fileName)) {
-            File file = new File(baseDir, fileName);
-            cache.put(fileName, YamlConfiguration.loadConfiguration(file));
-        }
-        return cache.get(fileName);
+    /**
+     * 使用 fallback 语言格式化消息，参数按 名称, 值, 名称, 值 ... 传入
+     */
+    public String format(String key, String... nameValues) {
+        MessageTemplate template = lookup(catalogs.get().fallbackChain(), key);
+        return template != null ? template.format(nameValues) : key;
     }
 
-    private YamlConfiguration getLangConfig() {
-        if (baseDir == null || lang == null)
-            throw new IllegalStateException("I18n baseDir or lang not initialized");
+    /**
+     * 使用玩家的语言格式化消息，参数按 名称, 值, 名称, 值 ... 传入
+     */
+    public String format(String key, Player player, String... nameValues) {
+        MessageTemplate template = lookup(chainFor(catalogs.get(), player), key);
+        return template != null ? template.format(nameValues) : key;
+    }
 
-        String validLang = getValidLanguage(lang);
-        String fileName = validLang + ".yml";
+    /**
+     * 异步加载语言文件（保留接口兼容，等同于重新加载）
+     *
+     * @param executor 读取语言文件的执行器
+     */
+    public CompletableFuture<Void> preloadLanguageFilesAsync(Executor executor) {
+        return CompletableFuture.runAsync(this::reload, executor);
+    }
 
-        if (!cache.containsKey(fileName)) {
-            File file = new File(baseDir, fileName);
-            if (!file.exists() && fallbackLang != null) {
-                String validFallbackLang = getValidLanguage(fallbackLang);
-                file = new File(baseDir, validFallbackLang + ".yml");
-                fileName = validFallbackLang + ".yml";
-            }
-            cache.put(fileName, YamlConfiguration.loadConfiguration(file));
-        }
-        return cache.get(fileName);
+    /**
+     * 异步重新加载语言文件，新目录加载完成后整体替换，读取方不会看到空缓存
+     *
+     * @param executor 读取语言文件的执行器
+     */
+    public CompletableFuture<Void> clearCacheAsync(Executor executor) {
+        return CompletableFuture.runAsync(this::reload, executor);
     }
 
     /**
-     * 异步预加载语言文件到缓存
+     * 全部语言目录，整体替换
+     * 每个语言代码的查找链（如 zh_TW -> zh_CN -> fallback）在首次使用时计算，之后直接复用，
+     * 目录替换后随新实例重新计算
+     *
+     * @param fallback 找不到玩家语言或消息键时使用的目录
+     * @param chains   语言代码 -> 查找链
      */
-    public CompletableFuture<Void> preloadLanguageFilesAsync() {
-        return CompletableFuture.runAsync(() -> {
-            if (baseDir == null || !baseDir.exists()) {
-                return;
+    private record Catalogs(Map<String, LanguageCatalog> byLocale, LanguageCatalog fallback,
+                            Map<String, LanguageCatalog[]> chains) {
+
+        static final Catalogs EMPTY = new Catalogs(Map.of(), LanguageCatalog.EMPTY, new ConcurrentHashMap<>());
+
+        static Catalogs of(Map<String, LanguageCatalog> byLocale, String fallbackLang) {
+            Map<String, LanguageCatalog> copy = Map.copyOf(byLocale);
+            LanguageCatalog fallback = copy.getOrDefault(fallbackLang, LanguageCatalog.EMPTY);
+            return new Catalogs(copy, fallback, new ConcurrentHashMap<>());
+        }
+
+        Catalogs withFallback(String fallbackLang) {
+            return of(byLocale, fallbackLang);
+        }
+
+        LanguageCatalog[] fallbackChain() {
+            return chainFor("");
+        }
+
+        LanguageCatalog[] chainFor(String locale) {
+            return chains.computeIfAbsent(locale, this::resolveChain);
+        }
+
+        /**
+         * 依次为：完全匹配的语言、同语种的其他地区（优先 语种_语种 形式，如 de_DE）、fallback
+         */
+        private LanguageCatalog[] resolveChain(String locale) {
+            List<LanguageCatalog> chain = new ArrayList<>(3);
+            LanguageCatalog exact = byLocale.get(locale);
+            if (exact != null) {
+                chain.add(exact);
             }
 
-            File[] langFiles = baseDir.listFiles((dir, name) -> name.endsWith(".yml"));
-            if (langFiles != null) {
-                for (File langFile : langFiles) {
-                    String fileName = langFile.getName();
-                    if (!cache.containsKey(fileName)) {
-                        try {
-                            cache.put(fileName, YamlConfiguration.loadConfiguration(langFile));
-                        } catch (Exception e) {
-                            // 记录但不中断，继续加载其他文件
-                            System.err.println("Failed to preload language file: " + fileName);
-                        }
-                    }
+            int separator = locale.indexOf('_');
+            String language = separator > 0 ? locale.substring(0, separator) : locale;
+            if (!language.isEmpty()) {
+                LanguageCatalog sibling = byLocale.get(language + "_" + language.toUpperCase(Locale.ROOT));
+                if (sibling == null) {
+                    sibling = byLocale.entrySet().stream()
+                            .filter(entry -> entry.getKey().startsWith(language + "_"))
+                            .min(Map.Entry.comparingByKey())
+                            .map(Map.Entry::getValue)
+                            .orElse(null);
+                }
+                if (sibling != null && !chain.contains(sibling)) {
+                    chain.add(sibling);
                 }
             }
-        });
-    }
 
-    /**
-     * 异步清理缓存
-     */
-    public CompletableFuture<Void> clearCacheAsync() {
-        return CompletableFuture.runAsync(() -> {
-            cache.clear();
-        });
+            if (!chain.contains(fallback)) {
+                chain.add(fallback);
+            }
+            return chain.toArray(new LanguageCatalog[0]);
+        }
     }
 }
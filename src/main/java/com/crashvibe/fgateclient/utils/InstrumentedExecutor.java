@@ -0,0 +1,172 @@
+package com.crashvibe.fgateclient.utils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 带指标的执行器 - 包装 ExecutorService，记录排队数、执行中数量、排队耗时与执行耗时
+ * 全部使用分段计数器，每个任务只多两次 nanoTime 调用
+ */
+public class InstrumentedExecutor implements Executor {
+
+    private final String name;
+    private final ExecutorService delegate;
+    // 队列已满时是否改为在提交线程执行（背压），否则抛出 RejectedExecutionException
+    private final boolean callerRunsWhenFull;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder executionNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxExecutionNanos = new LongAccumulator(Math::max, 0);
+
+    public InstrumentedExecutor(String name, ExecutorService delegate, boolean callerRunsWhenFull) {
+        this.name = name;
+        this.delegate = delegate;
+        this.callerRunsWhenFull = callerRunsWhenFull;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submitted.increment();
+        queued.incrementAndGet();
+        Runnable task = wrap(command, System.nanoTime(), true);
+        try {
+            delegate.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            if (!callerRunsWhenFull || delegate.isShutdown()) {
+                queued.decrementAndGet();
+                throw e;
+            }
+            task.run();
+        }
+    }
+
+    /**
+     * @param dueAt       任务应当开始执行的时间（System.nanoTime），用于计算排队耗时
+     * @param countQueued 是否计入排队数，定时任务的排队数由调度器自身统计
+     */
+    protected Runnable wrap(Runnable command, long dueAt, boolean countQueued) {
+        return () -> {
+            long startedAt = System.nanoTime();
+            if (countQueued) {
+                queued.decrementAndGet();
+            }
+            active.incrementAndGet();
+            boolean success = false;
+            try {
+                command.run();
+                success = true;
+            } finally {
+                active.decrementAndGet();
+                record(Math.max(0, startedAt - dueAt), System.nanoTime() - startedAt, success);
+            }
+        };
+    }
+
+    private void record(long queueWait, long execution, boolean success) {
+        completed.increment();
+        if (!success) {
+            failed.increment();
+        }
+        queueWaitNanos.add(queueWait);
+        executionNanos.add(execution);
+        maxQueueWaitNanos.accumulate(queueWait);
+        maxExecutionNanos.accumulate(execution);
+    }
+
+    protected void recordSubmitted() {
+        submitted.increment();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 已提交但尚未开始执行的任务数
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    /**
+     * 等待已提交的任务全部执行完，不阻止新任务提交
+     *
+     * @param deadlineNanos 截止时间（System.nanoTime）
+     * @return 是否在截止时间前空闲
+     */
+    public boolean awaitIdle(long deadlineNanos) throws InterruptedException {
+        while (getQueueDepth() > 0 || getActiveCount() > 0) {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    /**
+     * @return 超时前是否已全部结束
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * 中断执行中的任务并丢弃排队任务
+     *
+     * @return 被丢弃的任务数
+     */
+    public int shutdownNow() {
+        return delegate.shutdownNow().size();
+    }
+
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    public Snapshot snapshot() {
+        long done = completed.sum();
+        return new Snapshot(
+                name,
+                getQueueDepth(),
+                getActiveCount(),
+                submitted.sum(),
+                done,
+                failed.sum(),
+                rejected.sum(),
+                done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(queueWaitNanos.sum() / done),
+                TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos.get()),
+                done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(executionNanos.sum() / done),
+                TimeUnit.NANOSECONDS.toMillis(maxExecutionNanos.get()));
+    }
+
+    /**
+     * 指标快照
+     *
+     * @param rejected 队列已满的次数，允许在提交线程执行时也计入
+     */
+    public record Snapshot(String name, int queued, int active, long submitted, long completed, long failed,
+                           long rejected, long avgQueueWaitMicros, long maxQueueWaitMillis,
+                           long avgExecutionMicros, long maxExecutionMillis) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.crashvibe.fgateclient.utils;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带指标的定时器 - 排队耗时为实际开始时间与到期时间之差，即定时器的延迟
+ * 排队数为尚未到期的定时任务数
+ */
+public class InstrumentedScheduler extends InstrumentedExecutor {
+
+    private final ScheduledExecutorService scheduler;
+
+    public InstrumentedScheduler(String name, ScheduledExecutorService scheduler) {
+        super(name, scheduler, false);
+        this.scheduler = scheduler;
+    }
+
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        recordSubmitted();
+        long dueAt = System.nanoTime() + unit.toNanos(delay);
+        return scheduler.schedule(wrap(command, dueAt, false), delay, unit);
+    }
+
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        recordSubmitted();
+        long periodNanos = unit.toNanos(period);
+        return scheduler.scheduleAtFixedRate(new Runnable() {
+            // 同一周期任务不会并发执行，无需同步
+            private long dueAt = System.nanoTime() + unit.toNanos(initialDelay);
+
+            @Override
+            public void run() {
+                long currentDue = dueAt;
+                dueAt += periodNanos;
+                wrap(command, currentDue, false).run();
+            }
+        }, initialDelay, period, unit);
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return scheduler instanceof ScheduledThreadPoolExecutor executor ? executor.getQueue().size() : 0;
+    }
+}
@@ -0,0 +1,73 @@
+package com.crashvibe.fgateclient.utils;
+
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 单个语言的消息目录 - 加载后不可变，可在任意线程读取
+ *
+ * @param locale    语言代码，例如 zh_CN
+ * @param templates 消息键 -> 加载时编译好的消息模板
+ */
+record LanguageCatalog(String locale, Map<String, MessageTemplate> templates) {
+
+    static final LanguageCatalog EMPTY = new LanguageCatalog("", Map.of());
+
+    LanguageCatalog {
+        templates = Map.copyOf(templates);
+    }
+
+    /**
+     * 加载语言文件，文件中缺少的键使用插件内置的同名语言文件补全
+     *
+     * @param file     数据目录中的语言文件，可以不存在
+     * @param resource 插件内置的语言文件路径
+     */
+    static LanguageCatalog load(String locale, File file, String resource) throws IOException {
+        Map<String, String> messages = new HashMap<>();
+        try (InputStream in = LanguageCatalog.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in != null) {
+                try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                    flatten(YamlConfiguration.loadConfiguration(reader), messages);
+                }
+            }
+        }
+
+        if (file.isFile()) {
+            YamlConfiguration config = new YamlConfiguration();
+            try {
+                config.load(file);
+            } catch (InvalidConfigurationException e) {
+                throw new IOException("Invalid language file " + file.getName() + ": " + e.getMessage(), e);
+            }
+            flatten(config, messages);
+        }
+        Map<String, MessageTemplate> templates = new HashMap<>();
+        messages.forEach((key, value) -> templates.put(key, MessageTemplate.compile(value)));
+        return new LanguageCatalog(locale, templates);
+    }
+
+    private static void flatten(YamlConfiguration config, Map<String, String> messages) {
+        for (String key : config.getKeys(true)) {
+            if (!config.isConfigurationSection(key)) {
+                String value = config.getString(key);
+                if (value != null) {
+                    messages.put(key, value);
+                }
+            }
+        }
+    }
+
+    MessageTemplate get(String key) {
+        return templates.get(key);
+    }
+}
@@ -0,0 +1,125 @@
+package com.crashvibe.fgateclient.utils;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 语言文件热重载 - 监听 languages 文件夹，文件变化后在监听线程中重新解析并整体替换语言目录
+ * 编辑器保存时通常连续产生多个事件，在 debounce 时间内没有新事件后才合并处理一次
+ */
+public class LanguageWatcher {
+
+    private final I18n i18n;
+    private final Logger logger;
+    private final long debounceMillis;
+    private WatchService watchService;
+    private Thread thread;
+
+    public LanguageWatcher(I18n i18n, Logger logger, long debounceMillis) {
+        this.i18n = i18n;
+        this.logger = logger;
+        this.debounceMillis = debounceMillis;
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+
+        Path folder = i18n.getLanguagesFolder().toPath();
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to watch language folder " + folder + ", hot reload disabled", e);
+            closeWatchService();
+            return;
+        }
+
+        thread = new Thread(this::run, "FGateClient-LanguageWatcher");
+        thread.setDaemon(true);
+        thread.start();
+        logger.info("Watching " + folder + " for language changes");
+    }
+
+    public synchronized void stop() {
+        closeWatchService();
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    private void closeWatchService() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+            }
+            watchService = null;
+        }
+    }
+
+    private void run() {
+        WatchService service = watchService;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<String> changed = new TreeSet<>();
+                boolean overflow = collect(service.take(), changed);
+
+                // 等待变化停止
+                WatchKey next;
+                while ((next = service.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    overflow |= collect(next, changed);
+                }
+
+                try {
+                    if (overflow) {
+                        i18n.reload();
+                    } else if (!changed.isEmpty()) {
+                        i18n.reload(changed);
+                    }
+                } catch (Exception e) {
+                    logger.log(Level.WARNING, "Failed to reload languages " + changed, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // stop() 关闭了监听
+        }
+    }
+
+    /**
+     * 记录变化的语言代码
+     *
+     * @return 是否丢失了事件，需要全部重新加载
+     */
+    private static boolean collect(WatchKey key, Set<String> changed) {
+        boolean overflow = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            String name = event.context().toString();
+            if (name.endsWith(".yml")) {
+                changed.add(name.substring(0, name.length() - ".yml".length()));
+            }
+        }
+        key.reset();
+        return overflow;
+    }
+}
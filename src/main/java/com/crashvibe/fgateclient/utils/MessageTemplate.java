@@ -0,0 +1,128 @@
+package com.crashvibe.fgateclient.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预编译的消息模板 - 加载时将消息拆分为文本片段与 {name} 占位符，
+ * 格式化时只遍历一次片段，写入按模板长度预分配的 StringBuilder
+ * 未提供值的占位符保持原样输出
+ */
+public final class MessageTemplate {
+
+    // 为替换值预留的额外容量，多数消息格式化时不需要扩容
+    private static final int VALUE_HEADROOM = 32;
+
+    private final String text;
+    // 偶数下标为文本片段，奇数下标为占位符名
+    private final String[] parts;
+
+    private MessageTemplate(String text, String[] parts) {
+        this.text = text;
+        this.parts = parts;
+    }
+
+    /**
+     * 编译消息模板
+     */
+    public static MessageTemplate compile(String text) {
+        List<String> parts = new ArrayList<>();
+        int literalStart = 0;
+        int i = 0;
+        while (i < text.length()) {
+            int open = text.indexOf('{', i);
+            if (open < 0) {
+                break;
+            }
+            int close = text.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+
+            String name = text.substring(open + 1, close);
+            if (name.isEmpty() || name.indexOf('{') >= 0) {
+                // 不是合法占位符，按普通文本处理
+                i = open + 1;
+                continue;
+            }
+            parts.add(text.substring(literalStart, open));
+            parts.add(name);
+            literalStart = close + 1;
+            i = literalStart;
+        }
+        parts.add(text.substring(literalStart));
+        return new MessageTemplate(text, parts.toArray(new String[0]));
+    }
+
+    /**
+     * 原始消息文本
+     */
+    public String text() {
+        return text;
+    }
+
+    public boolean hasPlaceholders() {
+        return parts.length > 1;
+    }
+
+    /**
+     * 使用参数表格式化
+     */
+    public String format(Map<String, String> params) {
+        if (!hasPlaceholders() || params == null || params.isEmpty()) {
+            return text;
+        }
+
+        StringBuilder out = new StringBuilder(text.length() + VALUE_HEADROOM);
+        for (int i = 0; i < parts.length; i++) {
+            if ((i & 1) == 0) {
+                out.append(parts[i]);
+            } else {
+                appendValue(out, parts[i], params.get(parts[i]));
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * 使用 名称, 值, 名称, 值 ... 形式的参数格式化，不需要创建参数表
+     */
+    public String format(String... nameValues) {
+        if (!hasPlaceholders() || nameValues.length == 0) {
+            return text;
+        }
+
+        StringBuilder out = new StringBuilder(text.length() + VALUE_HEADROOM);
+        for (int i = 0; i < parts.length; i++) {
+            if ((i & 1) == 0) {
+                out.append(parts[i]);
+            } else {
+                appendValue(out, parts[i], find(nameValues, parts[i]));
+            }
+        }
+        return out.toString();
+    }
+
+    private static String find(String[] nameValues, String name) {
+        for (int i = 0; i + 1 < nameValues.length; i += 2) {
+            if (name.equals(nameValues[i])) {
+                return nameValues[i + 1];
+            }
+        }
+        return null;
+    }
+
+    private static void appendValue(StringBuilder out, String name, String value) {
+        if (value != null) {
+            out.append(value);
+        } else {
+            out.append('{').append(name).append('}');
+        }
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}